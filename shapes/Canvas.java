@@ -2,13 +2,20 @@ package shapes;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.List;
-import java.util.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 /**
  * Canvas is a class to allow for simple graphical drawing on a canvas.
  * This is a modification of the general purpose Canvas, specially made for
  * the BlueJ "shapes" example. 
+ * The shapes are kept in a retained Scene, so a change only repaints the
+ * area it touched instead of the whole canvas.
+ * Drawing never blocks: changes only mark their area as dirty, and once
+ * per frame a Swing timer takes a snapshot of the dirty area and paints
+ * it, so many changes between two frames cost one repaint. Only the Swing
+ * thread touches the window and the images, from their creation on.
  *
  * @author: Bruce Quig
  * @author: Michael Kolling (mik)
@@ -20,17 +27,19 @@ public class Canvas {
     // is done on purpose to keep the interface and instance fields of the
     // shape objects in this project clean and simple for educational purposes.
 
+    private static final int DEFAULT_FRAME_RATE = 60;
+
     private static Canvas canvasSingleton;
 
     /**
      * Factory method to get the canvas singleton object.
      */
-    public static Canvas getCanvas() {
+    public static synchronized Canvas getCanvas() {
         if (canvasSingleton == null) {
             canvasSingleton = new Canvas("BlueJ Shapes Demo", 600, 600, 
                                          Color.white);
+            canvasSingleton.setVisible(true);
         }
-        canvasSingleton.setVisible(true);
         return canvasSingleton;
     }
 
@@ -38,11 +47,16 @@ public class Canvas {
 
     private JFrame frame;
     private CanvasPane canvas;
-    private Graphics2D graphic;
+    private Graphics2D graphic; // Swing thread only
     private Color backgroundColour;
-    private Image canvasImage;
-    private List<Object> objects;
-    private HashMap<Object,ShapeDescription> shapes;
+    private BufferedImage canvasImage; // Swing thread only
+    private BufferedImage scratch; // Swing thread only
+    private Scene scene; // Also the lock of the scene, dirty and the counters
+    private java.awt.Rectangle dirty; // Area changed since the last frame, or null
+    private long changes; // Changes made to the scene
+    private long presented; // Changes already on screen
+    private Timer timer; // Presents the frames on the Swing thread
+    private volatile int frameRate; // As requested; the delay is rounded
     
     /**
      * Create a Canvas.
@@ -52,15 +66,74 @@ public class Canvas {
      * @param bgClour  the desired background colour of the canvas
      */
     private Canvas(String title, int width, int height, Color bgColour) {
+        backgroundColour = bgColour;
+        scene = new Scene();
+        onSwingThread(() -> createWindow(title, width, height));
+    }
+
+    /**
+     * Create the frame, the offscreen images and the frame timer. Runs on
+     * the Swing thread.
+     */
+    private void createWindow(String title, int width, int height) {
         frame = new JFrame();
         canvas = new CanvasPane();
         frame.setContentPane(canvas);
         frame.setTitle(title);
         canvas.setPreferredSize(new Dimension(width, height));
-        backgroundColour = bgColour;
         frame.pack();
-        objects = new ArrayList<Object>();
-        shapes = new HashMap<Object,ShapeDescription>();
+
+        // The offscreen image, filled with the background colour
+        canvasImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        scratch = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        graphic = canvasImage.createGraphics();
+        graphic.setColor(backgroundColour);
+        graphic.fillRect(0, 0, width, height);
+
+        frameRate = DEFAULT_FRAME_RATE;
+        timer = new Timer(1000 / DEFAULT_FRAME_RATE, e -> presentFrame());
+        timer.start();
+    }
+
+    /**
+     * Run a task on the Swing thread and wait until it ends. What the task
+     * writes is visible to the caller afterwards. An interrupt does not cut
+     * the wait short, so the task is never left half done; it is kept for
+     * the caller.
+     * @param  task  the task to run
+     */
+    private static void onSwingThread(Runnable task) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            task.run();
+            return;
+        }
+
+        FutureTask<Void> future = new FutureTask<Void>(task, null);
+        SwingUtilities.invokeLater(future);
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    future.get();
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
     /**
@@ -71,17 +144,7 @@ public class Canvas {
      * the canvas (true or false) 
      */
     public void setVisible(boolean visible) {
-        if (graphic == null) {
-            // first time: instantiate the offscreen image and fill it with
-            // the background colour
-            Dimension size = canvas.getSize();
-            canvasImage = canvas.createImage(size.width, size.height);
-            graphic = (Graphics2D)canvasImage.getGraphics();
-            graphic.setColor(backgroundColour);
-            graphic.fillRect(0, 0, size.width, size.height);
-            graphic.setColor(Color.black);
-        }
-        frame.setVisible(visible);
+        SwingUtilities.invokeLater(() -> frame.setVisible(visible));
     }
 
     /**
@@ -94,10 +157,9 @@ public class Canvas {
      // objects. It is carefully designed to keep the visible shape interfaces
      // in this project clean and simple for educational purposes.
     public void draw(Object referenceObject, String color, java.awt.Shape shape) {
-        objects.remove(referenceObject);   // just in case it was already there
-        objects.add(referenceObject);      // add at the end
-        shapes.put(referenceObject, new ShapeDescription(shape, color));
-        redraw();
+        synchronized (scene) {
+            markDirty(scene.put(referenceObject, color, shape));
+        }
     }
  
     /**
@@ -105,48 +167,102 @@ public class Canvas {
      * @param  referenceObject  the shape object to be erased 
      */
     public void erase(Object referenceObject) {
-        objects.remove(referenceObject);   // just in case it was already there
-        shapes.remove(referenceObject);
-        redraw();
+        synchronized (scene) {
+            java.awt.Rectangle area = scene.remove(referenceObject);
+            if (area != null) {
+                markDirty(area);
+            }
+        }
     }
 
     /**
-     * Set the foreground colour of the Canvas.
-     * @param  newColour   the new colour for the foreground of the Canvas 
+     * Set how many frames per second are presented.
+     * @param  framesPerSecond  the frame rate, greater than 0
+     */
+    public void setFrameRate(int framesPerSecond) {
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("The frame rate must be positive");
+        }
+        frameRate = framesPerSecond;
+        timer.setDelay(Math.max(1, 1000 / framesPerSecond));
+    }
+
+    /**
+     * Return the frame rate last set. The frames are presented every
+     * 1000 / rate milliseconds, rounded down, so slightly faster.
+     */
+    public int getFrameRate() {
+        return frameRate;
+    }
+
+    /**
+     * Wait until the changes made so far are on screen. Animations call
+     * this between steps so they run at the frame rate. On the Swing
+     * thread it returns at once, since the frame could never be presented.
+     */
+    public void waitForFrame() {
+        if (SwingUtilities.isEventDispatchThread()) {
+            return;
+        }
+        synchronized (scene) {
+            long made = changes;
+            while (presented < made) {
+                try {
+                    scene.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Set the foreground colour of the Canvas. Does nothing: every shape is
+     * drawn with its own colour, so the canvas has no foreground colour.
+     * Kept so that existing callers still compile.
+     * @param  colorString   the new colour for the foreground of the Canvas
      */
     public void setForegroundColor(String colorString) {
+    }
+
+    /**
+     * Return the colour for a colour name, black if it is not known.
+     * @param  colorString  the colour name
+     */
+    static Color colorOf(String colorString) {
         if (colorString.equals("red")) {
-            graphic.setColor(Color.red);
+            return Color.red;
         }
         else if (colorString.equals("black")) {
-            graphic.setColor(Color.black);
+            return Color.black;
         }
         else if (colorString.equals("blue")) {
-            graphic.setColor(Color.blue);
+            return Color.blue;
         }
         else if (colorString.equals("yellow")) {
-            graphic.setColor(Color.yellow);
+            return Color.yellow;
         }
         else if (colorString.equals("green")) {
-            graphic.setColor(Color.green);
+            return Color.green;
         }
         else if (colorString.equals("magenta")) {
-            graphic.setColor(Color.magenta);
+            return Color.magenta;
         }
         else if (colorString.equals("white")) {
-            graphic.setColor(Color.white);
+            return Color.white;
         }
         else if (colorString.equals("pink")){
-            graphic.setColor(Color.pink);
+            return Color.pink;
         }
         else if (colorString.equals("orange")){
-            graphic.setColor(Color.orange);
+            return Color.orange;
         }
         else if (colorString.equals("cyan")){
-            graphic.setColor(Color.cyan);
+            return Color.cyan;
         }
         else {
-            graphic.setColor(Color.black);
+            return Color.black;
         }
     }
 
@@ -165,25 +281,43 @@ public class Canvas {
     }
 
     /**
-     * Redraw all shapes currently on the Canvas.
+     * Add an area to the one to repaint in the next frame.
+     * Must be called holding the scene lock.
+     * @param  area  the area that changed
      */
-    private void redraw() {
-        erase();
-        for (Iterator i=objects.iterator(); i.hasNext(); ) {
-            shapes.get(i.next()).draw(graphic);
-        }
-        canvas.repaint();
+    private void markDirty(java.awt.Rectangle area) {
+        dirty = dirty == null ? area : dirty.union(area);
+        changes++;
     }
-       
+
     /**
-     * Erase the whole canvas. (Does not repaint.)
+     * Paint the dirty area, if any, and show it. Runs on the Swing thread,
+     * once per frame.
      */
-    private void erase() {
-        Color original = graphic.getColor();
-        graphic.setColor(backgroundColour);
-        Dimension size = canvas.getSize();
-        graphic.fill(new java.awt.Rectangle(0, 0, size.width, size.height));
-        graphic.setColor(original);
+    private void presentFrame() {
+        Scene.Snapshot snapshot;
+        long upTo;
+        synchronized (scene) {
+            if (dirty == null) {
+                return;
+            }
+            upTo = changes;
+            java.awt.Rectangle bounds = new java.awt.Rectangle(0, 0, canvasImage.getWidth(), canvasImage.getHeight());
+            snapshot = scene.snapshot(dirty.intersection(bounds));
+            dirty = null;
+        }
+
+        // The model can keep changing the scene while the snapshot is painted
+        snapshot.paint(graphic, scratch, backgroundColour);
+        java.awt.Rectangle area = snapshot.getArea();
+        if (!area.isEmpty()) {
+            canvas.repaint(area.x, area.y, area.width, area.height);
+        }
+
+        synchronized (scene) {
+            presented = upTo;
+            scene.notifyAll();
+        }
     }
 
     /**
@@ -196,23 +330,5 @@ public class Canvas {
             g.drawImage(canvasImage, 0, 0, null);
         }
     }
-    
-    /**
-     * Inner class ShapeDescription - describes a shape to be drawn on canvas
-     */
-    private class ShapeDescription {
-        private java.awt.Shape shape;
-        private String colorString;
-
-        public ShapeDescription(java.awt.Shape shape, String color) {
-            this.shape = shape;
-            colorString = color;
-        }
 
-        public void draw(Graphics2D graphic) {
-            setForegroundColor(colorString);
-            graphic.draw(shape);
-            graphic.fill(shape);
-        }
-    }
 }
@@ -45,7 +45,6 @@ public class Circle extends Shape {
             canvas.draw(this, color, 
                     new Ellipse2D.Double(xPosition, yPosition, 
                                         diameter, diameter));
-            canvas.wait(10);
         }
     }
 }
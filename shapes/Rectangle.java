@@ -48,7 +48,6 @@ public class Rectangle extends Shape {
             canvas.draw(this, color,
                 new java.awt.Rectangle(xPosition, yPosition, 
                                       width, height));
-            canvas.wait(10);
         }
     }
 }
@@ -0,0 +1,163 @@
+package shapes;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.*;
+
+/**
+ * Retained scene of the Canvas: every shape on it, in drawing order, with
+ * its bounding box.
+ *
+ * Changing a shape returns the rectangle it touched, the union of its old
+ * and new boxes, and only such a rectangle is repainted: it is cleared to
+ * the background and the shapes whose boxes cross it are drawn again.
+ * Moving one robot repaints a few squares around it instead of the whole
+ * road.
+ *
+ * The scene is changed by the threads of the model, so a repaint works on
+ * a Snapshot: the rectangle and the shapes crossing it, copied out of the
+ * scene. The snapshot can then be painted on the Swing thread without
+ * holding any lock.
+ *
+ * Shapes are painted from a SpriteCache, which the snapshots share and
+ * only the painting thread uses.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class Scene {
+    private LinkedHashMap<Object, Item> items; // Reference object -> shape, in drawing order
+    private SpriteCache sprites;
+
+    /**
+     * Create an empty scene.
+     */
+    public Scene() {
+        items = new LinkedHashMap<Object, Item>();
+        sprites = new SpriteCache();
+    }
+
+    /**
+     * Add a shape, or replace it and bring it to the front.
+     * @param referenceObject  an object to define identity for this shape
+     * @param color            the color of the shape
+     * @param shape            the shape to draw, not changed afterwards
+     * @return the area that must be repainted
+     */
+    public java.awt.Rectangle put(Object referenceObject, String color, java.awt.Shape shape) {
+        Item item = new Item(shape, color);
+        Item old = items.remove(referenceObject);   // so it goes at the end
+        items.put(referenceObject, item);
+        return old == null ? new java.awt.Rectangle(item.bounds) : old.bounds.union(item.bounds);
+    }
+
+    /**
+     * Remove a shape.
+     * @param referenceObject  the object that identifies the shape
+     * @return the area that must be repainted, or null if it was not there
+     */
+    public java.awt.Rectangle remove(Object referenceObject) {
+        Item old = items.remove(referenceObject);
+        return old == null ? null : new java.awt.Rectangle(old.bounds);
+    }
+
+    /**
+     * Copy what is needed to repaint an area: the shapes crossing it, in
+     * order.
+     * @param area  the area to repaint
+     * @return a snapshot that does not change with the scene
+     */
+    public Snapshot snapshot(java.awt.Rectangle area) {
+        java.util.List<Item> crossing = new ArrayList<Item>();
+        for (Item item : items.values()) {
+            if (item.bounds.intersects(area)) {
+                crossing.add(item);
+            }
+        }
+        return new Snapshot(new java.awt.Rectangle(area), crossing.toArray(new Item[0]), sprites);
+    }
+
+    /**
+     * Inner class Snapshot - an area of the scene to repaint, with the
+     * shapes crossing it.
+     */
+    public static class Snapshot {
+        private final java.awt.Rectangle area;
+        private final Item[] items;
+        private final SpriteCache sprites;
+
+        private Snapshot(java.awt.Rectangle area, Item[] items, SpriteCache sprites) {
+            this.area = area;
+            this.items = items;
+            this.sprites = sprites;
+        }
+
+        /**
+         * Return the area repainted by this snapshot.
+         */
+        public java.awt.Rectangle getArea() {
+            return new java.awt.Rectangle(area);
+        }
+
+        /**
+         * Repaint the area: fill it with the background and draw the
+         * shapes.
+         *
+         * The shapes are drawn unclipped on the scratch image and only the
+         * area is copied, because Java2D does not draw outlines pixel for
+         * pixel the same under a clip; this way a partial repaint matches a
+         * full one.
+         * @param graphic     where to paint
+         * @param scratch     an image covering the area, its content is lost
+         * @param background  the background colour
+         */
+        public void paint(Graphics2D graphic, BufferedImage scratch, Color background) {
+            if (area.isEmpty()) {
+                return;
+            }
+
+            Graphics2D scratchGraphic = scratch.createGraphics();
+            scratchGraphic.setColor(background);
+            scratchGraphic.fill(area);
+            for (Item item : items) {
+                item.draw(scratchGraphic, sprites);
+            }
+            scratchGraphic.dispose();
+
+            java.awt.Shape oldClip = graphic.getClip();
+            graphic.setClip(area);
+            graphic.drawImage(scratch, 0, 0, null);
+            graphic.setClip(oldClip);
+        }
+    }
+
+    /**
+     * Inner class Item - a shape of the scene with its color and box.
+     */
+    private static class Item {
+        private final java.awt.Shape shape;
+        private final String colorString;
+        private final java.awt.Rectangle bounds; // Every pixel the shape may touch
+        private final SpriteCache.Key key; // Its sprite, or null to draw it
+
+        public Item(java.awt.Shape shape, String color) {
+            this.shape = shape;
+            this.colorString = color;
+
+            // The outline is drawn one pixel past the right and bottom edges
+            this.bounds = shape.getBounds();
+            bounds.grow(1, 1);
+            this.key = SpriteCache.keyOf(shape, color, bounds);
+        }
+
+        public void draw(Graphics2D graphic, SpriteCache sprites) {
+            if (key != null) {
+                graphic.drawImage(sprites.get(key, shape, bounds), bounds.x, bounds.y, null);
+                return;
+            }
+            graphic.setColor(Canvas.colorOf(colorString));
+            graphic.draw(shape);
+            graphic.fill(shape);
+        }
+    }
+}
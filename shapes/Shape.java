@@ -103,6 +103,7 @@ public abstract class Shape {
         for (int i = 0; i < distance; i++) {
             xPosition += delta;
             draw();
+            Canvas.getCanvas().waitForFrame();
         }
     }
 
@@ -123,6 +124,7 @@ public abstract class Shape {
         for (int i = 0; i < distance; i++) {
             yPosition += delta;
             draw();
+            Canvas.getCanvas().waitForFrame();
         }
     }
     
@@ -0,0 +1,136 @@
+package shapes;
+
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.util.*;
+
+/**
+ * Cache of shapes already drawn as images, so the Canvas can copy pixels
+ * instead of drawing the same circle, square or triangle again and again.
+ *
+ * A sprite is keyed by the kind of shape, its geometry relative to the
+ * corner of its box, and its color: every robot of the same color shares
+ * one image, wherever it is. Circles, rectangles and polygons with whole
+ * coordinates are cached; other shapes have no key and are drawn as
+ * before.
+ *
+ * A sprite gives the same pixels as drawing its shape, except where the
+ * shape crosses the edge of the image, which may differ by a pixel.
+ *
+ * The cache keeps the sprites used most recently, up to a limit. It is
+ * not thread safe; only the thread that paints uses it.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+class SpriteCache {
+    private static final int MAX_SPRITES = 256;
+
+    private LinkedHashMap<Key, BufferedImage> sprites; // In order of use, oldest first
+
+    /**
+     * Create an empty cache.
+     */
+    public SpriteCache() {
+        sprites = new LinkedHashMap<Key, BufferedImage>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, BufferedImage> eldest) {
+                return size() > MAX_SPRITES;
+            }
+        };
+    }
+
+    /**
+     * Return the key of a shape, or null if it cannot be cached.
+     * @param shape   the shape
+     * @param color   the color of the shape
+     * @param bounds  the box of the shape, with room for its outline
+     */
+    public static Key keyOf(java.awt.Shape shape, String color, java.awt.Rectangle bounds) {
+        if (shape instanceof java.awt.Rectangle) {
+            java.awt.Rectangle rectangle = (java.awt.Rectangle) shape;
+            return new Key('R', color, rectangle.x - bounds.x, rectangle.y - bounds.y,
+                           rectangle.width, rectangle.height);
+        }
+        if (shape instanceof Ellipse2D) {
+            Ellipse2D ellipse = (Ellipse2D) shape;
+            int x = (int) ellipse.getX();
+            int y = (int) ellipse.getY();
+            int width = (int) ellipse.getWidth();
+            int height = (int) ellipse.getHeight();
+            if (x != ellipse.getX() || y != ellipse.getY()
+                || width != ellipse.getWidth() || height != ellipse.getHeight()) {
+                return null;
+            }
+            return new Key('E', color, x - bounds.x, y - bounds.y, width, height);
+        }
+        if (shape instanceof Polygon) {
+            Polygon polygon = (Polygon) shape;
+            int[] points = new int[2 * polygon.npoints];
+            for (int i = 0; i < polygon.npoints; i++) {
+                points[2 * i] = polygon.xpoints[i] - bounds.x;
+                points[2 * i + 1] = polygon.ypoints[i] - bounds.y;
+            }
+            return new Key('P', color, points);
+        }
+        return null;
+    }
+
+    /**
+     * Return the sprite of a shape, drawing it the first time.
+     * @param key     the key of the shape
+     * @param shape   the shape
+     * @param bounds  the box of the shape; the sprite covers it
+     */
+    public BufferedImage get(Key key, java.awt.Shape shape, java.awt.Rectangle bounds) {
+        BufferedImage sprite = sprites.get(key);
+        if (sprite == null) {
+            sprite = new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphic = sprite.createGraphics();
+            graphic.translate(-bounds.x, -bounds.y);
+            graphic.setColor(Canvas.colorOf(key.color));
+            graphic.draw(shape);
+            graphic.fill(shape);
+            graphic.dispose();
+            sprites.put(key, sprite);
+        }
+        return sprite;
+    }
+
+    /**
+     * Return the number of sprites kept.
+     */
+    public int size() {
+        return sprites.size();
+    }
+
+    /**
+     * Inner class Key - kind, geometry and color of a cached shape.
+     */
+    static class Key {
+        private final char kind;
+        private final String color;
+        private final int[] geometry;
+
+        private Key(char kind, String color, int... geometry) {
+            this.kind = kind;
+            this.color = color;
+            this.geometry = geometry;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return kind == key.kind && color.equals(key.color) && Arrays.equals(geometry, key.geometry);
+        }
+
+        @Override
+        public int hashCode() {
+            return (kind * 31 + color.hashCode()) * 31 + Arrays.hashCode(geometry);
+        }
+    }
+}
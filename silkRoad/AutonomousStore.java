@@ -27,6 +27,17 @@ public class AutonomousStore extends Store {
               tenges, AUTONOMOUS_COLOR);
     }
     
+    /**
+     * Constructor for AutonomousStore at a position it already chose,
+     * used when replaying a recorded simulation.
+     * 
+     * @param position the chosen position
+     * @param tenges initial amount of tenges
+     */
+    public AutonomousStore(int position, int tenges) {
+        super(position, tenges, AUTONOMOUS_COLOR);
+    }
+    
     /**
      * Chooses an available position for the store.
      * 
@@ -66,6 +77,11 @@ public class AutonomousStore extends Store {
         return "autonomous";
     }
     
+    @Override
+    public byte getTypeCode() {
+        return AUTONOMOUS;
+    }
+    
     @Override
     public boolean canRobotTakeTenges(Robot robot) {
         return true; // Any robot can take tenges
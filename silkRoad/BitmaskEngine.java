@@ -0,0 +1,210 @@
+package silkRoad;
+
+import java.util.Arrays;
+
+/**
+ * Engine that solves every day with an exhaustive bitmask DP: the best route
+ * of any robot for each subset of stores, then the best split of the stores
+ * into at most one route per robot.
+ * It is exponential in the number of stores. The tests check it against a
+ * Held-Karp search over every order of visit, and the faster engines
+ * against it.
+ *
+ * Robots and stores are kept in packed int arrays, stores sorted by position,
+ * and the subset tables and the partition DP live in flat scratch buffers that
+ * are reused from one day to the next, so the hot loops do no boxing, no list
+ * allocation and no pointer chasing.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class BitmaskEngine extends ContestEngine {
+    protected static final int INF = Integer.MIN_VALUE / 2;
+    // Largest array the VM can allocate
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    protected int[] robotPositions;
+    protected int robotCount;
+    protected int[] storePositions; // Sorted by position
+    protected int[] storeTenges; // Same order as storePositions
+    protected int storeCount;
+
+    // Scratch buffers reused across days
+    protected int[] subsetTenges; // [mask]
+    protected int[] robotProfits; // [robot * subsets + mask]
+    protected int[] dp; // [mask * (robots + 1) + k]
+
+    /**
+     * Constructor for BitmaskEngine.
+     */
+    public BitmaskEngine() {
+        this.robotPositions = new int[8];
+        this.storePositions = new int[8];
+        this.storeTenges = new int[8];
+        this.subsetTenges = new int[0];
+        this.robotProfits = new int[0];
+        this.dp = new int[0];
+    }
+
+    @Override
+    public String getType() {
+        return "bitmask";
+    }
+
+    @Override
+    public void addRobot(int position) {
+        if (robotCount == robotPositions.length) {
+            robotPositions = Arrays.copyOf(robotPositions, robotCount * 2);
+        }
+        robotPositions[robotCount++] = position;
+    }
+
+    @Override
+    public void addStore(int position, int tenges) {
+        if (storeCount == storePositions.length) {
+            storePositions = Arrays.copyOf(storePositions, storeCount * 2);
+            storeTenges = Arrays.copyOf(storeTenges, storeCount * 2);
+        }
+
+        // Keep stores sorted so the outer bits of a mask are its outer stores
+        int index = storeCount;
+        while (index > 0 && storePositions[index - 1] > position) {
+            storePositions[index] = storePositions[index - 1];
+            storeTenges[index] = storeTenges[index - 1];
+            index--;
+        }
+        storePositions[index] = position;
+        storeTenges[index] = tenges;
+        storeCount++;
+    }
+
+    @Override
+    public int maxProfit() {
+        if (robotCount == 0 || storeCount == 0) {
+            return 0;
+        }
+
+        int subsets = subsetCount();
+        int width = robotCount + 1;
+        ensureCapacity(subsets, width);
+
+        fillSubsetTenges(subsets);
+        for (int r = 0; r < robotCount; r++) {
+            fillRobotProfits(r, subsets);
+        }
+
+        // dp[mask][k] = best profit splitting the stores in mask among exactly k robots
+        Arrays.fill(dp, 0, subsets * width, INF);
+        dp[0] = 0;
+        int all = subsets - 1;
+        int result = 0;
+
+        for (int mask = 0; mask < subsets; mask++) {
+            int unvisited = all ^ mask;
+            for (int k = 0; k <= robotCount; k++) {
+                int current = dp[mask * width + k];
+                if (current == INF) {
+                    continue;
+                }
+                result = Math.max(result, current);
+
+                if (unvisited == 0 || k >= robotCount) {
+                    continue;
+                }
+
+                int submask = unvisited;
+                while (submask > 0) {
+                    int bestProfitForSubmask = 0;
+                    for (int r = 0; r < robotCount; r++) {
+                        bestProfitForSubmask = Math.max(bestProfitForSubmask, robotProfits[r * subsets + submask]);
+                    }
+
+                    int target = (mask | submask) * width + k + 1;
+                    dp[target] = Math.max(dp[target], current + bestProfitForSubmask);
+
+                    submask = (submask - 1) & unvisited;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Fills the tenges of each subset, shared by all robots.
+     *
+     * @param subsets number of subsets of stores
+     */
+    protected void fillSubsetTenges(int subsets) {
+        subsetTenges[0] = 0;
+        for (int mask = 1; mask < subsets; mask++) {
+            int lowest = Integer.numberOfTrailingZeros(mask);
+            subsetTenges[mask] = subsetTenges[mask & (mask - 1)] + storeTenges[lowest];
+        }
+    }
+
+    /**
+     * Fills the best route of one robot for each subset.
+     *
+     * @param r index of the robot
+     * @param subsets number of subsets of stores
+     */
+    protected void fillRobotProfits(int r, int subsets) {
+        int robotPos = robotPositions[r];
+        int base = r * subsets;
+        robotProfits[base] = 0;
+        for (int mask = 1; mask < subsets; mask++) {
+            int left = storePositions[Integer.numberOfTrailingZeros(mask)];
+            int right = storePositions[31 - Integer.numberOfLeadingZeros(mask)];
+            int profit = SilkRoadContest.routeProfit(robotPos, left, right, subsetTenges[mask]);
+            robotProfits[base + mask] = Math.max(0, profit);
+        }
+    }
+
+    /**
+     * Returns the number of subsets of the stores.
+     *
+     * @return 2 to the number of stores
+     * @throws IllegalStateException if there are too many stores for a mask
+     */
+    protected int subsetCount() {
+        if (storeCount > 30) {
+            throw new IllegalStateException("Too many stores for the bitmask engine: " + storeCount);
+        }
+        return 1 << storeCount;
+    }
+
+    /**
+     * Grows the scratch buffers when the instance outgrows them.
+     *
+     * @param subsets number of subsets of stores
+     * @param width number of robot counts in the partition DP
+     * @throws IllegalStateException if a buffer would not fit in an array
+     */
+    protected void ensureCapacity(int subsets, int width) {
+        long tables = (long) robotCount * subsets;
+        long cells = (long) subsets * width;
+        if (tables > MAX_ARRAY_LENGTH || cells > MAX_ARRAY_LENGTH) {
+            throw new IllegalStateException("Too many robots and stores for the bitmask engine: "
+                                            + robotCount + " robots, " + storeCount + " stores");
+        }
+
+        if (subsetTenges.length < subsets) {
+            subsetTenges = new int[subsets];
+        }
+        if (robotProfits.length < tables) {
+            robotProfits = new int[grownLength(robotProfits.length, tables)];
+        }
+        if (dp.length < cells) {
+            dp = new int[grownLength(dp.length, cells)];
+        }
+    }
+
+    /**
+     * Length of a buffer grown to hold a number of cells, doubling it when
+     * possible so it is not reallocated every day.
+     */
+    private static int grownLength(int length, long needed) {
+        return (int) Math.min(MAX_ARRAY_LENGTH, Math.max(needed, 2L * length));
+    }
+}
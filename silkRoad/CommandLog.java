@@ -0,0 +1,238 @@
+package silkRoad;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Binary log of the commands applied to a SilkRoadModel, with periodic
+ * snapshots of the model, so a run can be rebuilt exactly by
+ * SilkRoadReplayer.
+ *
+ * The log lives in a directory. The file commands.log holds one record per
+ * command: a byte with the command code followed by its int arguments.
+ * Every snapshotInterval commands, snapshot-N.bin holds the state of the
+ * model after the first N commands together with the byte offset of the
+ * next record in commands.log, so a replay only has to apply the commands
+ * after the nearest snapshot.
+ *
+ * Robot and store types are written as the same numbers used by
+ * SilkRoadModel.robots() and stores().
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class CommandLog implements Closeable {
+    /** Name of the command file inside the log directory. */
+    public static final String COMMANDS_FILE = "commands.log";
+
+    // Command codes, followed by their arguments
+    static final byte PLACE_ROBOT = 1; // position
+    static final byte PLACE_TYPED_ROBOT = 2; // position, robot type
+    static final byte PLACE_STORE = 3; // position, tenges
+    static final byte PLACE_TYPED_STORE = 4; // position actually used, tenges, store type
+    static final byte MOVE_ROBOT = 5; // position, distance
+    static final byte MOVE_ROBOTS = 6;
+    static final byte REMOVE_ROBOT = 7; // position
+    static final byte REMOVE_STORE = 8; // position
+    static final byte RETURN_ROBOTS = 9;
+    static final byte UNDO = 10;
+    static final byte REDO = 11;
+    static final byte RESUPPLY_STORES = 12;
+    static final byte RESET = 13;
+    static final byte REBOOT = 14;
+    static final byte UNDO_LIMIT = 15; // limit
+    static final byte CLEAR = 16;
+    static final byte BEGIN_BATCH = 17;
+    static final byte COMMIT_BATCH = 18;
+    static final byte ROLLBACK_BATCH = 19;
+    static final byte SWEEP_COLLECTION = 20; // 1 to enable, 0 to disable
+    static final byte PROFIT_HISTORY_LIMIT = 21; // limit
+
+    private static final String[] ROBOT_TYPES = {"normal", "neverback", "tender", "lazy"};
+    private static final String[] STORE_TYPES = {"normal", "autonomous", "fighter"};
+
+    private File directory;
+    private DataOutputStream out;
+    private int snapshotInterval;
+    private long commandCount; // Commands written so far
+    private long byteCount; // Bytes written to commands.log so far
+    private long lastSnapshot; // Command count of the last snapshot
+
+    /**
+     * Constructor for CommandLog.
+     * Creates the directory if needed and starts an empty command file.
+     *
+     * @param directory the directory of the log
+     * @param snapshotInterval number of commands between snapshots
+     * @throws IOException if the command file cannot be created
+     */
+    public CommandLog(File directory, int snapshotInterval) throws IOException {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("The snapshot interval must be at least 1");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create the log directory " + directory);
+        }
+
+        // Snapshots of an older log would not match the new commands
+        File[] oldSnapshots = directory.listFiles((dir, name) -> snapshotIndex(name) >= 0);
+        if (oldSnapshots != null) {
+            for (File snapshot : oldSnapshots) {
+                snapshot.delete();
+            }
+        }
+
+        this.directory = directory;
+        this.snapshotInterval = snapshotInterval;
+        this.out = new DataOutputStream(new BufferedOutputStream(
+            new FileOutputStream(new File(directory, COMMANDS_FILE)), 1 << 16));
+        this.lastSnapshot = -1;
+    }
+
+    /**
+     * Returns the number of commands written so far.
+     *
+     * @return the number of commands in the log
+     */
+    public long getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * Returns the directory of the log.
+     *
+     * @return the log directory
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Writes a command and its arguments.
+     *
+     * @param command the command code
+     * @param arguments the int arguments of the command
+     * @throws IOException if the command cannot be written
+     */
+    void record(byte command, int... arguments) throws IOException {
+        out.writeByte(command);
+        for (int argument : arguments) {
+            out.writeInt(argument);
+        }
+        commandCount++;
+        byteCount += 1 + 4L * arguments.length;
+    }
+
+    /**
+     * Checks whether a snapshot should be taken before the next command.
+     *
+     * @return true if the commands since the last snapshot reached the interval
+     */
+    boolean isSnapshotDue() {
+        // Counted from the last snapshot, since none is taken inside a batch
+        return commandCount - lastSnapshot >= snapshotInterval;
+    }
+
+    /**
+     * Writes a snapshot of the model after the commands logged so far.
+     *
+     * @param model the model to save
+     * @throws IOException if the snapshot cannot be written
+     */
+    void writeSnapshot(SilkRoadModel model) throws IOException {
+        out.flush();
+
+        File file = new File(directory, "snapshot-" + commandCount + ".bin");
+        try (DataOutputStream snapshot = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(file)))) {
+            snapshot.writeLong(commandCount);
+            snapshot.writeLong(byteCount);
+            model.writeState(snapshot);
+        }
+        lastSnapshot = commandCount;
+    }
+
+    /**
+     * Writes pending commands to disk.
+     *
+     * @throws IOException if the commands cannot be written
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Returns the number of commands covered by a snapshot file name.
+     *
+     * @param name the file name
+     * @return the command count of the snapshot, or -1 if it is not one
+     */
+    static long snapshotIndex(String name) {
+        if (!name.startsWith("snapshot-") || !name.endsWith(".bin")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(9, name.length() - 4));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the number written for a robot type.
+     *
+     * @param type the robot type
+     * @return 0=normal, 1=neverback, 2=tender, 3=lazy
+     */
+    static int robotTypeCode(String type) {
+        return indexOf(ROBOT_TYPES, type);
+    }
+
+    /**
+     * Returns the robot type written as a number.
+     *
+     * @param code the number of the type
+     * @return the robot type
+     */
+    static String robotType(int code) {
+        return code >= 0 && code < ROBOT_TYPES.length ? ROBOT_TYPES[code] : "normal";
+    }
+
+    /**
+     * Returns the number written for a store type.
+     *
+     * @param type the store type
+     * @return 0=normal, 1=autonomous, 2=fighter
+     */
+    static int storeTypeCode(String type) {
+        return indexOf(STORE_TYPES, type);
+    }
+
+    /**
+     * Returns the store type written as a number.
+     *
+     * @param code the number of the type
+     * @return the store type
+     */
+    static String storeType(int code) {
+        return code >= 0 && code < STORE_TYPES.length ? STORE_TYPES[code] : "normal";
+    }
+
+    private static int indexOf(String[] types, String type) {
+        for (int i = 0; i < types.length; i++) {
+            if (types[i].equalsIgnoreCase(type)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
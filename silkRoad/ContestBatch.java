@@ -0,0 +1,101 @@
+package silkRoad;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Solves many contest instances across the cores of a ForkJoinPool.
+ *
+ * Every instance becomes its own task, so idle workers steal pending
+ * instances from busy ones and long instances do not hold back short ones.
+ * The input is consumed lazily and a semaphore bounds how many instances are
+ * submitted but not finished, so a large stream of inputs is never fully
+ * queued in memory. Results come back in input order, each with its own
+ * solving time.
+ *
+ * The batch must not be run from a task of its own pool, since waiting for
+ * an in-flight slot would block one of the workers that has to free it.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class ContestBatch {
+    private final ForkJoinPool pool;
+    private final String engineType;
+    private final int maxInFlight;
+
+    /**
+     * Constructor for ContestBatch on the common pool, with the line engine
+     * and four instances in flight per worker.
+     */
+    public ContestBatch() {
+        this(ForkJoinPool.commonPool(), "line", 4 * ForkJoinPool.commonPool().getParallelism());
+    }
+
+    /**
+     * Constructor for ContestBatch.
+     *
+     * @param pool pool that solves the instances
+     * @param engineType engine used for every instance, as in SilkRoadContest.createEngine
+     * @param maxInFlight maximum number of instances submitted and not yet solved
+     */
+    public ContestBatch(ForkJoinPool pool, String engineType, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.pool = pool;
+        this.engineType = engineType;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Solves every instance of the input.
+     *
+     * @param instances days of each instance, in the format of SilkRoadContest.solve
+     * @return one result per instance, in input order
+     */
+    public List<ContestResult> solveAll(Iterator<int[][]> instances) {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        List<ForkJoinTask<ContestResult>> tasks = new ArrayList<>();
+
+        try {
+            while (instances.hasNext()) {
+                int[][] days = instances.next();
+                int index = tasks.size();
+                inFlight.acquire();
+                tasks.add(pool.submit(() -> {
+                    try {
+                        return solveOne(index, days);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (ForkJoinTask<ContestResult> task : tasks) {
+                task.cancel(false);
+            }
+            throw new IllegalStateException("Batch interrupted after " + tasks.size() + " instances", e);
+        }
+
+        List<ContestResult> results = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<ContestResult> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    /**
+     * Solves one instance with a fresh engine and times it.
+     */
+    private ContestResult solveOne(int index, int[][] days) {
+        long start = System.nanoTime();
+        int[] profits = SilkRoadContest.solve(days, engineType);
+        return new ContestResult(index, profits, System.nanoTime() - start);
+    }
+}
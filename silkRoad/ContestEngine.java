@@ -0,0 +1,90 @@
+package silkRoad;
+
+/**
+ * Abstract base class for the engines that answer the SilkRoadContest problem.
+ * An engine receives the robots and stores added day after day and reports
+ * the maximum profit achievable with everything added so far.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public abstract class ContestEngine {
+
+    /**
+     * Returns the engine type.
+     * Must be implemented by subclasses.
+     *
+     * @return engine type string
+     */
+    public abstract String getType();
+
+    /**
+     * Adds a robot to the instance.
+     *
+     * @param position position of the robot on the route
+     */
+    public abstract void addRobot(int position);
+
+    /**
+     * Adds a store to the instance.
+     *
+     * @param position position of the store on the route
+     * @param tenges amount of tenges in the store
+     */
+    public abstract void addStore(int position, int tenges);
+
+    /**
+     * Calculates the maximum profit with the robots and stores added so far.
+     *
+     * @return the maximum possible profit
+     */
+    public abstract int maxProfit();
+
+    /**
+     * Distance from a position to the closest of the first count sorted
+     * positions, or Long.MAX_VALUE / 4 if count is 0, small enough to
+     * subtract from without overflow.
+     *
+     * @param sorted robot positions in ascending order
+     * @param count number of positions in use
+     * @param position position on the route
+     * @return distance to the nearest robot
+     */
+    static long nearestDistance(int[] sorted, int count, int position) {
+        int index = insertionPoint(sorted, count, position);
+        long distance = Long.MAX_VALUE / 4;
+
+        if (index < count) {
+            distance = (long) sorted[index] - position;
+        }
+        if (index > 0) {
+            distance = Math.min(distance, (long) position - sorted[index - 1]);
+        }
+
+        return distance;
+    }
+
+    /**
+     * Finds the first index whose value is not smaller than the key.
+     *
+     * @param values the first count values, in ascending order
+     * @param count number of values in use
+     * @param key value to look for
+     * @return the index where the key is or would be inserted
+     */
+    static int insertionPoint(int[] values, int count, int key) {
+        int low = 0;
+        int high = count;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+}
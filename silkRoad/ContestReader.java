@@ -0,0 +1,223 @@
+package silkRoad;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Streaming reader for contest inputs in the text format
+ *
+ *     n
+ *     1 x        (a robot at x)
+ *     2 x c      (a store at x with c tenges)
+ *
+ * with one line per day. Numbers are parsed straight from the bytes, and each
+ * day is handed to a ContestEngine as soon as it is read, so the input never
+ * becomes an int[][] matrix or a list of strings. Files can be memory-mapped
+ * instead of read through a buffer; a file larger than one mapping allows is
+ * mapped one window after another.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class ContestReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream in; // Null when the input is mapped
+    private final FileChannel channel; // Null unless the input is mapped
+    private final int window; // Bytes mapped at a time
+    private long mappedUpTo; // File offset after the current window
+    private ByteBuffer buffer;
+
+    /**
+     * Constructor for ContestReader over a stream.
+     *
+     * @param in stream with the contest input
+     */
+    public ContestReader(InputStream in) {
+        this.in = in;
+        this.channel = null;
+        this.window = 0;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.buffer.limit(0);
+    }
+
+    /**
+     * Constructor for ContestReader over a file mapped window by window.
+     */
+    private ContestReader(FileChannel channel, int window) {
+        this.in = null;
+        this.channel = channel;
+        this.window = window;
+        this.buffer = ByteBuffer.allocate(0);
+    }
+
+    /**
+     * Opens a contest file.
+     *
+     * @param file file with the contest input
+     * @param mapped true to memory-map the file instead of reading it through a buffer
+     * @return a reader positioned at the start of the file
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static ContestReader open(File file, boolean mapped) throws IOException {
+        if (!mapped) {
+            return new ContestReader(new FileInputStream(file));
+        }
+        return openMapped(file, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Opens a contest file memory-mapped, mapping at most window bytes at a
+     * time. The file stays open until the reader is closed.
+     *
+     * @param file file with the contest input
+     * @param window largest number of bytes mapped at once, greater than 0
+     * @return a reader positioned at the start of the file
+     * @throws IOException if the file cannot be opened
+     */
+    public static ContestReader openMapped(File file, int window) throws IOException {
+        if (window <= 0) {
+            throw new IllegalArgumentException("The window must be positive");
+        }
+        return new ContestReader(new RandomAccessFile(file, "r").getChannel(), window);
+    }
+
+    /**
+     * Reads the whole contest, feeding every day to the engine.
+     *
+     * @param engine empty engine that solves the contest
+     * @return maximum profit after each day
+     * @throws IOException if the input cannot be read or is truncated
+     */
+    public int[] solve(ContestEngine engine) throws IOException {
+        int n = nextInt();
+        int[] result = new int[n];
+
+        for (int day = 0; day < n; day++) {
+            readDay(engine);
+            result[day] = engine.maxProfit();
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads the whole contest, feeding every day to the engine and writing
+     * each answer as soon as it is known, without keeping the answers.
+     *
+     * @param engine empty engine that solves the contest
+     * @param out writer for the maximum profit after each day
+     * @throws IOException if the input cannot be read or the output written
+     */
+    public void solve(ContestEngine engine, ContestWriter out) throws IOException {
+        int n = nextInt();
+
+        for (int day = 0; day < n; day++) {
+            readDay(engine);
+            out.writeInt(engine.maxProfit());
+        }
+
+        out.flush();
+    }
+
+    /**
+     * Reads one day and applies it to the engine.
+     */
+    private void readDay(ContestEngine engine) throws IOException {
+        int type = nextInt();
+        int position = nextInt();
+
+        if (type == 1) {
+            engine.addRobot(position);
+        } else if (type == 2) {
+            engine.addStore(position, nextInt());
+        } else {
+            throw new IOException("Unknown day type: " + type);
+        }
+    }
+
+    /**
+     * Parses the next integer, skipping any separators before it.
+     *
+     * @return the integer read
+     * @throws IOException if the input ends before a number
+     */
+    public int nextInt() throws IOException {
+        int c = read();
+        while (c != '-' && (c < '0' || c > '9')) {
+            if (c < 0) {
+                throw new EOFException("Contest input ended before a number");
+            }
+            c = read();
+        }
+
+        boolean negative = c == '-';
+        if (negative) {
+            c = read();
+        }
+
+        int value = 0;
+        while (c >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            c = read();
+        }
+
+        return negative ? -value : value;
+    }
+
+    /**
+     * Returns the next byte of the input, or -1 at the end.
+     */
+    private int read() throws IOException {
+        if (!buffer.hasRemaining() && !refill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Refills the buffer from the stream, or maps the next window of the
+     * file.
+     *
+     * @return false if the input is exhausted
+     */
+    private boolean refill() throws IOException {
+        if (channel != null) {
+            long size = channel.size();
+            if (mappedUpTo >= size) {
+                return false;
+            }
+            long length = Math.min(window, size - mappedUpTo);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, mappedUpTo, length);
+            mappedUpTo += length;
+            return true;
+        }
+
+        int read = in.read(buffer.array(), 0, BUFFER_SIZE);
+        if (read <= 0) {
+            buffer.limit(0);
+            return false;
+        }
+
+        buffer.position(0);
+        buffer.limit(read);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null) {
+            in.close();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package silkRoad;
+
+/**
+ * Result of solving one contest instance in a batch: the maximum profit
+ * after each day and the time the solver spent on it.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class ContestResult {
+    private final int index;
+    private final int[] profits;
+    private final long nanos;
+
+    /**
+     * Constructor for ContestResult.
+     *
+     * @param index position of the instance in the batch input
+     * @param profits maximum profit after each day
+     * @param nanos time spent solving the instance, in nanoseconds
+     */
+    public ContestResult(int index, int[] profits, long nanos) {
+        this.index = index;
+        this.profits = profits;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Returns the position of the instance in the batch input.
+     *
+     * @return index of the instance
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the maximum profit after each day, as solve() would.
+     *
+     * @return profits per day
+     */
+    public int[] getProfits() {
+        return profits;
+    }
+
+    /**
+     * Returns the time spent solving the instance.
+     *
+     * @return solving time in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+}
@@ -0,0 +1,95 @@
+package silkRoad;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Buffered writer for the answers of a contest, one integer per line.
+ * Digits are written straight into a byte buffer, so no strings are built
+ * for the answers.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class ContestWriter implements Closeable, Flushable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private final byte[] digits;
+    private int size;
+
+    /**
+     * Constructor for ContestWriter.
+     *
+     * @param out stream that receives the answers
+     */
+    public ContestWriter(OutputStream out) {
+        this.out = out;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.digits = new byte[11];
+    }
+
+    /**
+     * Writes an integer followed by a line break.
+     *
+     * @param value the integer to write
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeInt(int value) throws IOException {
+        if (size + digits.length + 1 > BUFFER_SIZE) {
+            flushBuffer();
+        }
+
+        long remaining = value;
+        if (remaining < 0) {
+            buffer[size++] = '-';
+            remaining = -remaining;
+        }
+
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+
+        while (count > 0) {
+            buffer[size++] = digits[--count];
+        }
+        buffer[size++] = '\n';
+    }
+
+    /**
+     * Writes all the answers of a contest.
+     *
+     * @param values maximum profit after each day
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeAll(int[] values) throws IOException {
+        for (int value : values) {
+            writeInt(value);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        out.close();
+    }
+
+    /**
+     * Hands the buffered bytes to the stream.
+     */
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, size);
+        size = 0;
+    }
+}
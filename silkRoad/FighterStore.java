@@ -24,6 +24,11 @@ public class FighterStore extends Store {
         return "fighter";
     }
     
+    @Override
+    public byte getTypeCode() {
+        return FIGHTER;
+    }
+    
     @Override
     public boolean canRobotTakeTenges(Robot robot) {
         // Only robots with more profit than store tenges can take
@@ -0,0 +1,132 @@
+package silkRoad;
+
+import java.util.Arrays;
+
+/**
+ * Kuhn-Munkres (Hungarian) algorithm for the robot-to-store assignment.
+ * Finds the assignment of rows to columns with maximum total profit in
+ * O(n^2 * m) time for an n x m matrix (n <= m), working only on primitive
+ * arrays. Rectangular matrices are supported: when there are more rows than
+ * columns the matrix is solved transposed, so every column gets a row.
+ * Since the smaller side is always fully matched, callers that may leave
+ * pairs out should clamp negative profits to zero.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class HungarianAlgorithm {
+
+    /**
+     * Finds the assignment with maximum total profit.
+     *
+     * @param profits matrix where profits[i][j] is the profit of assigning
+     *                row i (robot) to column j (store)
+     * @return array where position i holds the column assigned to row i,
+     *         or -1 if row i was left unassigned
+     */
+    public static int[] maximize(int[][] profits) {
+        int rows = profits.length;
+        if (rows == 0) {
+            return new int[0];
+        }
+
+        int columns = profits[0].length;
+        int[] assignment = new int[rows];
+        Arrays.fill(assignment, -1);
+        if (columns == 0) {
+            return assignment;
+        }
+
+        if (rows <= columns) {
+            int[] columnOfRow = solve(profits, rows, columns, false);
+            System.arraycopy(columnOfRow, 0, assignment, 0, rows);
+        } else {
+            int[] rowOfColumn = solve(profits, columns, rows, true);
+            for (int j = 0; j < columns; j++) {
+                assignment[rowOfColumn[j]] = j;
+            }
+        }
+
+        return assignment;
+    }
+
+    /**
+     * Core of the algorithm for an n x m cost matrix with n <= m, using
+     * potentials and shortest augmenting paths. Costs are the negated
+     * profits, so the minimum cost assignment is the maximum profit one.
+     *
+     * @param profits original profit matrix
+     * @param n number of rows of the (possibly transposed) matrix
+     * @param m number of columns of the (possibly transposed) matrix
+     * @param transposed true to read profits[j][i] instead of profits[i][j]
+     * @return array with the column assigned to each of the n rows
+     */
+    private static int[] solve(int[][] profits, int n, int m, boolean transposed) {
+        // Arrays are 1-indexed; index 0 is the virtual starting column
+        long[] rowPotential = new long[n + 1];
+        long[] columnPotential = new long[m + 1];
+        int[] rowOfColumn = new int[m + 1];
+        int[] way = new int[m + 1];
+        long[] minSlack = new long[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            rowOfColumn[0] = i;
+            int column = 0;
+            Arrays.fill(minSlack, Long.MAX_VALUE);
+            Arrays.fill(used, false);
+
+            // Grow the alternating tree until a free column is reached
+            do {
+                used[column] = true;
+                int row = rowOfColumn[column];
+                long delta = Long.MAX_VALUE;
+                int nextColumn = 0;
+
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) {
+                        continue;
+                    }
+
+                    long cost = transposed ? -(long) profits[j - 1][row - 1] : -(long) profits[row - 1][j - 1];
+                    long slack = cost - rowPotential[row] - columnPotential[j];
+                    if (slack < minSlack[j]) {
+                        minSlack[j] = slack;
+                        way[j] = column;
+                    }
+                    if (minSlack[j] < delta) {
+                        delta = minSlack[j];
+                        nextColumn = j;
+                    }
+                }
+
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        rowPotential[rowOfColumn[j]] += delta;
+                        columnPotential[j] -= delta;
+                    } else {
+                        minSlack[j] -= delta;
+                    }
+                }
+
+                column = nextColumn;
+            } while (rowOfColumn[column] != 0);
+
+            // Flip the augmenting path
+            do {
+                int previousColumn = way[column];
+                rowOfColumn[column] = rowOfColumn[previousColumn];
+                column = previousColumn;
+            } while (column != 0);
+        }
+
+        int[] columnOfRow = new int[n];
+        for (int j = 1; j <= m; j++) {
+            if (rowOfColumn[j] != 0) {
+                columnOfRow[rowOfColumn[j] - 1] = j - 1;
+            }
+        }
+
+        return columnOfRow;
+    }
+}
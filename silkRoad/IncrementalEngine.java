@@ -0,0 +1,196 @@
+package silkRoad;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exact bitmask engine that keeps its tables from one day to the next.
+ *
+ * It solves the same partition DP as BitmaskEngine, but the per-robot
+ * subset tables, the best robot per subset and the partition rows survive
+ * between days. Adding a store only fills the subsets that
+ * contain the new store; adding a robot only builds that robot's table and
+ * the new partition row, and recomputes the older rows only when the new
+ * robot improves some subset.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class IncrementalEngine extends ContestEngine {
+    private static final int INF = Integer.MIN_VALUE / 2;
+
+    private List<Integer> robots;
+    private int[] subsetTenges; // Total tenges of each subset of stores
+    private int[] subsetLeft; // Leftmost store position of each subset
+    private int[] subsetRight; // Rightmost store position of each subset
+    private List<int[]> robotProfits; // Best route of each robot for each subset of stores
+    private int[] bestProfits; // Best route among all robots for each subset
+    private List<int[]> partitions; // partitions.get(k)[mask] = best split of mask among k robots
+    private int bestTotal;
+
+    /**
+     * Constructor for IncrementalEngine.
+     */
+    public IncrementalEngine() {
+        this.robots = new ArrayList<>();
+        this.subsetTenges = new int[1];
+        this.subsetLeft = new int[1];
+        this.subsetRight = new int[1];
+        this.robotProfits = new ArrayList<>();
+        this.bestProfits = new int[]{0};
+        this.partitions = new ArrayList<>();
+        this.partitions.add(new int[]{0}); // 0 stores, 0 robots = profit 0
+        this.bestTotal = 0;
+    }
+
+    @Override
+    public String getType() {
+        return "incremental";
+    }
+
+    @Override
+    public void addStore(int position, int tenges) {
+        int oldSize = bestProfits.length;
+        int newSize = oldSize << 1;
+
+        // Subset summaries: the new store joins every old subset
+        subsetTenges = Arrays.copyOf(subsetTenges, newSize);
+        subsetLeft = Arrays.copyOf(subsetLeft, newSize);
+        subsetRight = Arrays.copyOf(subsetRight, newSize);
+        subsetTenges[oldSize] = tenges;
+        subsetLeft[oldSize] = position;
+        subsetRight[oldSize] = position;
+        for (int rest = 1; rest < oldSize; rest++) {
+            subsetTenges[oldSize | rest] = subsetTenges[rest] + tenges;
+            subsetLeft[oldSize | rest] = Math.min(subsetLeft[rest], position);
+            subsetRight[oldSize | rest] = Math.max(subsetRight[rest], position);
+        }
+
+        // Subset tables: only the subsets containing the new store are new
+        for (int r = 0; r < robotProfits.size(); r++) {
+            int[] profits = Arrays.copyOf(robotProfits.get(r), newSize);
+            fillRoutes(robots.get(r), profits, oldSize, newSize);
+            robotProfits.set(r, profits);
+        }
+
+        bestProfits = Arrays.copyOf(bestProfits, newSize);
+        for (int mask = oldSize; mask < newSize; mask++) {
+            int best = INF;
+            for (int[] profits : robotProfits) {
+                best = Math.max(best, profits[mask]);
+            }
+            bestProfits[mask] = best;
+        }
+
+        // Partition rows: old masks keep their value, new masks are pulled
+        int[] emptyRow = Arrays.copyOf(partitions.get(0), newSize);
+        Arrays.fill(emptyRow, oldSize, newSize, INF);
+        partitions.set(0, emptyRow);
+
+        for (int k = 1; k < partitions.size(); k++) {
+            int[] row = Arrays.copyOf(partitions.get(k), newSize);
+            int[] previousRow = partitions.get(k - 1);
+            for (int mask = oldSize; mask < newSize; mask++) {
+                row[mask] = pull(previousRow, mask);
+                bestTotal = Math.max(bestTotal, row[mask]);
+            }
+            partitions.set(k, row);
+        }
+    }
+
+    @Override
+    public void addRobot(int position) {
+        robots.add(position);
+
+        int size = bestProfits.length;
+        int[] profits = new int[size];
+        fillRoutes(position, profits, 1, size);
+        robotProfits.add(profits);
+
+        boolean improved = false;
+        for (int mask = 1; mask < size; mask++) {
+            if (profits[mask] > bestProfits[mask]) {
+                bestProfits[mask] = profits[mask];
+                improved = true;
+            }
+        }
+
+        partitions.add(new int[size]);
+
+        // Older rows depend on the best robot per subset, so they only
+        // change when the new robot improved some subset
+        int firstRow = improved ? 1 : partitions.size() - 1;
+        for (int k = firstRow; k < partitions.size(); k++) {
+            int[] row = partitions.get(k);
+            int[] previousRow = partitions.get(k - 1);
+            row[0] = INF;
+            for (int mask = 1; mask < size; mask++) {
+                row[mask] = pull(previousRow, mask);
+            }
+        }
+
+        if (improved) {
+            bestTotal = 0;
+            for (int k = 1; k < partitions.size(); k++) {
+                bestTotal = Math.max(bestTotal, maxOf(partitions.get(k)));
+            }
+        } else {
+            bestTotal = Math.max(bestTotal, maxOf(partitions.get(partitions.size() - 1)));
+        }
+    }
+
+    @Override
+    public int maxProfit() {
+        return Math.max(0, bestTotal);
+    }
+
+    /**
+     * Fills the best route of a robot for the subsets in [from, to),
+     * using the closed-form route profit on the line.
+     *
+     * @param robotPos position of the robot
+     * @param profits subset table of the robot
+     * @param from first subset to fill
+     * @param to end of the subsets to fill (exclusive)
+     */
+    private void fillRoutes(int robotPos, int[] profits, int from, int to) {
+        for (int mask = from; mask < to; mask++) {
+            int profit = SilkRoadContest.routeProfit(robotPos, subsetLeft[mask], subsetRight[mask],
+                                                     subsetTenges[mask]);
+            profits[mask] = Math.max(0, profit);
+        }
+    }
+
+    /**
+     * Best value of a mask giving one non-empty subset of it to a new robot
+     * and the rest to the previous robots.
+     *
+     * @param previousRow partition row with one robot less
+     * @param mask stores to split
+     * @return the best split, or INF if there is none
+     */
+    private int pull(int[] previousRow, int mask) {
+        int best = INF;
+
+        for (int submask = mask; submask > 0; submask = (submask - 1) & mask) {
+            int rest = previousRow[mask ^ submask];
+            if (rest != INF) {
+                best = Math.max(best, rest + bestProfits[submask]);
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Returns the maximum value of a row.
+     */
+    private static int maxOf(int[] row) {
+        int max = INF;
+        for (int value : row) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,175 @@
+package silkRoad;
+
+import java.nio.IntBuffer;
+
+/**
+ * Append-only history of int values, such as the profit of each movement
+ * of a robot.
+ *
+ * Without a limit the history grows by doubling its array, so adding is
+ * amortized O(1) and millions of values can be kept. With a limit it keeps
+ * only the newest values as a ring. The ring is mirrored: every value is
+ * written twice, limit slots apart, so the newest values are always one
+ * contiguous range of the array. Either way view() wraps that range in a
+ * read-only IntBuffer without copying it.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class IntHistory {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] values;
+    private int start; // Index of the oldest value kept
+    private int size; // Values kept
+    private int limit; // Maximum values kept, or 0 for no limit
+
+    /**
+     * Constructor for IntHistory, without a limit.
+     */
+    public IntHistory() {
+        this(0);
+    }
+
+    /**
+     * Constructor for IntHistory.
+     *
+     * @param limit the maximum number of values kept, or 0 for no limit
+     */
+    public IntHistory(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("The limit cannot be negative");
+        }
+
+        this.limit = limit;
+        this.values = new int[limit == 0 ? INITIAL_CAPACITY : 2 * limit];
+    }
+
+    /**
+     * Returns the maximum number of values kept.
+     *
+     * @return the limit, or 0 if there is none
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Changes the maximum number of values kept, dropping the oldest ones
+     * if there are more.
+     *
+     * @param limit the new limit, or 0 for no limit
+     */
+    public void setLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("The limit cannot be negative");
+        }
+
+        int kept = limit == 0 ? size : Math.min(size, limit);
+        int[] newValues = new int[limit == 0 ? Math.max(INITIAL_CAPACITY, kept) : 2 * limit];
+        System.arraycopy(values, start + size - kept, newValues, 0, kept);
+        if (limit > 0) {
+            System.arraycopy(newValues, 0, newValues, limit, kept);
+        }
+
+        this.values = newValues;
+        this.start = 0;
+        this.size = kept;
+        this.limit = limit;
+    }
+
+    /**
+     * Adds a value, dropping the oldest one if the limit is reached.
+     *
+     * @param value the value to add
+     */
+    public void add(int value) {
+        if (limit == 0) {
+            if (size == values.length) {
+                int[] grown = new int[values.length * 2];
+                System.arraycopy(values, 0, grown, 0, size);
+                values = grown;
+            }
+            values[size++] = value;
+            return;
+        }
+
+        if (size == limit) {
+            start++;
+            size--;
+            if (start == limit) {
+                start = 0;
+            }
+        }
+
+        int slot = (start + size) % limit;
+        values[slot] = value;
+        values[slot + limit] = value;
+        size++;
+    }
+
+    /**
+     * Removes the newest value.
+     *
+     * @return the value removed
+     */
+    public int removeLast() {
+        if (size == 0) {
+            throw new IllegalStateException("The history is empty");
+        }
+        size--;
+        return values[start + size];
+    }
+
+    /**
+     * Returns the value at a position, 0 being the oldest kept.
+     *
+     * @param index position of the value
+     * @return the value
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size);
+        }
+        return values[start + index];
+    }
+
+    /**
+     * Returns the number of values kept.
+     *
+     * @return the size of the history
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every value, keeping the limit.
+     */
+    public void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns a read-only view of the values kept, oldest first, sharing
+     * the array of the history. The view is only valid until the history
+     * changes.
+     *
+     * @return the values as an IntBuffer
+     */
+    public IntBuffer view() {
+        return IntBuffer.wrap(values, start, size).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Copies the values kept into a new array, oldest first.
+     *
+     * @return the values
+     */
+    public int[] toArray() {
+        int[] copy = new int[size];
+        System.arraycopy(values, start, copy, 0, size);
+        return copy;
+    }
+}
@@ -25,6 +25,11 @@ public class LazyRobot extends Robot {
         return "lazy";
     }
     
+    @Override
+    public byte getTypeCode() {
+        return LAZY;
+    }
+    
     @Override
     public boolean canMove(int moveDistance) {
         return true; // Can move in any direction, just won't collect
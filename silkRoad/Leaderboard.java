@@ -0,0 +1,268 @@
+package silkRoad;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranking of the robots of a SilkRoadModel by total profit.
+ *
+ * The robots are kept in an indexed binary max-heap, so the leader is read
+ * in O(1) and a robot whose profit changed is moved to its place in
+ * O(log R). Each robot remembers the order in which it was added: among
+ * robots with the same profit the first one added ranks higher, the same
+ * robot a scan of the robot list in order would pick.
+ *
+ * The heap keeps the profit each robot had when it was last added or
+ * updated, so update must be called after every change of a robot's
+ * total profit.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class Leaderboard {
+    private Robot[] heap; // Robots in heap order
+    private int[] profits; // Profit of each heap entry when last updated
+    private long[] orders; // Order in which each heap entry was added
+    private int size;
+    private long nextOrder;
+    private Map<Robot, Integer> slots; // Robot -> index in the heap
+
+    /**
+     * Constructor for Leaderboard.
+     */
+    public Leaderboard() {
+        this.heap = new Robot[8];
+        this.profits = new int[8];
+        this.orders = new long[8];
+        this.size = 0;
+        this.nextOrder = 0;
+        this.slots = new IdentityHashMap<>();
+    }
+
+    /**
+     * Returns the number of robots in the ranking.
+     *
+     * @return the number of robots
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a robot after all the robots already added.
+     *
+     * @param robot the robot to add
+     */
+    public void add(Robot robot) {
+        if (slots.containsKey(robot)) {
+            update(robot);
+            return;
+        }
+
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+            profits = Arrays.copyOf(profits, size * 2);
+            orders = Arrays.copyOf(orders, size * 2);
+        }
+
+        heap[size] = robot;
+        profits[size] = robot.getTotalProfit();
+        orders[size] = nextOrder++;
+        slots.put(robot, size);
+        size++;
+        siftUp(size - 1);
+    }
+
+    /**
+     * Moves a robot to its place after its total profit changed.
+     *
+     * @param robot the robot whose profit changed
+     */
+    public void update(Robot robot) {
+        Integer slot = slots.get(robot);
+        if (slot == null) {
+            return;
+        }
+
+        profits[slot] = robot.getTotalProfit();
+        siftDown(siftUp(slot));
+    }
+
+    /**
+     * Removes a robot from the ranking.
+     *
+     * @param robot the robot to remove
+     */
+    public void remove(Robot robot) {
+        Integer slot = slots.remove(robot);
+        if (slot == null) {
+            return;
+        }
+
+        size--;
+        if (slot != size) {
+            move(size, slot);
+            siftDown(siftUp(slot));
+        }
+        heap[size] = null;
+    }
+
+    /**
+     * Removes every robot.
+     */
+    public void clear() {
+        Arrays.fill(heap, 0, size, null);
+        slots.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the robot with the highest profit.
+     *
+     * @return the leader, or null if there are no robots
+     */
+    public Robot peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    /**
+     * Returns the robots with the highest profits, best first.
+     * Only the top of the heap is visited, so this costs O(k log k)
+     * whatever the number of robots.
+     *
+     * @param k the number of robots wanted
+     * @return up to k robots, sorted by profit from highest to lowest
+     */
+    public List<Robot> top(int k) {
+        int count = Math.max(0, Math.min(k, size));
+        List<Robot> result = new ArrayList<>(count);
+        if (count == 0) {
+            return result;
+        }
+
+        // Max-heap of candidate heap slots: the children of every slot taken
+        int[] candidates = new int[2 * count + 1];
+        int candidateCount = 0;
+        candidates[candidateCount++] = 0;
+
+        while (result.size() < count) {
+            int best = candidates[0];
+            result.add(heap[best]);
+
+            candidates[0] = candidates[--candidateCount];
+            siftDownCandidates(candidates, candidateCount, 0);
+
+            for (int child = 2 * best + 1; child <= 2 * best + 2 && child < size; child++) {
+                candidates[candidateCount] = child;
+                siftUpCandidates(candidates, candidateCount++);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks whether the entry at slot a ranks above the entry at slot b.
+     */
+    private boolean above(int a, int b) {
+        if (profits[a] != profits[b]) {
+            return profits[a] > profits[b];
+        }
+        return orders[a] < orders[b];
+    }
+
+    private int siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (!above(slot, parent)) {
+                break;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+        return slot;
+    }
+
+    private int siftDown(int slot) {
+        while (true) {
+            int best = slot;
+            int left = 2 * slot + 1;
+            int right = left + 1;
+
+            if (left < size && above(left, best)) {
+                best = left;
+            }
+            if (right < size && above(right, best)) {
+                best = right;
+            }
+            if (best == slot) {
+                return slot;
+            }
+
+            swap(slot, best);
+            slot = best;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Robot robot = heap[a];
+        int profit = profits[a];
+        long order = orders[a];
+
+        move(b, a);
+
+        heap[b] = robot;
+        profits[b] = profit;
+        orders[b] = order;
+        slots.put(robot, b);
+    }
+
+    /**
+     * Copies the entry at slot from into slot to.
+     */
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        profits[to] = profits[from];
+        orders[to] = orders[from];
+        slots.put(heap[to], to);
+    }
+
+    private void siftUpCandidates(int[] candidates, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!above(candidates[index], candidates[parent])) {
+                break;
+            }
+            int swap = candidates[index];
+            candidates[index] = candidates[parent];
+            candidates[parent] = swap;
+            index = parent;
+        }
+    }
+
+    private void siftDownCandidates(int[] candidates, int count, int index) {
+        while (true) {
+            int best = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+
+            if (left < count && above(candidates[left], candidates[best])) {
+                best = left;
+            }
+            if (right < count && above(candidates[right], candidates[best])) {
+                best = right;
+            }
+            if (best == index) {
+                return;
+            }
+
+            int swap = candidates[index];
+            candidates[index] = candidates[best];
+            candidates[best] = swap;
+            index = best;
+        }
+    }
+}
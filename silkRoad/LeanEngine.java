@@ -0,0 +1,186 @@
+package silkRoad;
+
+import java.util.Arrays;
+
+/**
+ * Exact bitmask engine that keeps the memory of the DP to one or two int
+ * tables of 2^S entries besides the route table.
+ *
+ * BitmaskEngine keeps a route table per robot and a partition table of
+ * 2^S x (R + 1) entries, and rescans every robot table inside each submask
+ * step. Here the robots are collapsed before the DP: the best route for a
+ * subset of stores only depends on the distance from its end stores to the
+ * nearest robot, so a single table holds the best route of every subset and
+ * is filled once per day, in place over the subset tenges.
+ *
+ * The partition DP counts routes only when the robots are fewer than the
+ * stores. Otherwise the cap can never bind and a single table indexed by
+ * mask is enough; with the cap, the layers for k and k - 1 routes are rolled
+ * over two tables. The running time is still O(3^S) per layer, but the
+ * memory no longer grows with the number of robots, so 22 to 24 stores fit
+ * in a normal heap.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class LeanEngine extends ContestEngine {
+    private int[] robotPositions; // Robot positions, sorted
+    private int robotCount;
+    private int[] storePositions; // Store positions, sorted
+    private int[] storeTenges; // Same order as storePositions
+    private int storeCount;
+
+    // Scratch buffers reused across days
+    private int[] nearest; // [store] distance to the closest robot
+    private int[] bestRoute; // [mask] subset tenges, then best route
+    private int[] currentLayer; // [mask] best split with at most k routes
+    private int[] previousLayer; // [mask] at most k - 1 routes, only when capped
+    private long peakBytes;
+
+    /**
+     * Constructor for LeanEngine.
+     */
+    public LeanEngine() {
+        this.robotPositions = new int[8];
+        this.storePositions = new int[8];
+        this.storeTenges = new int[8];
+        this.nearest = new int[8];
+        this.bestRoute = new int[0];
+        this.currentLayer = new int[0];
+        this.previousLayer = new int[0];
+    }
+
+    @Override
+    public String getType() {
+        return "lean";
+    }
+
+    @Override
+    public void addRobot(int position) {
+        if (robotCount == robotPositions.length) {
+            robotPositions = Arrays.copyOf(robotPositions, robotCount * 2);
+        }
+
+        int index = insertionPoint(robotPositions, robotCount, position);
+        System.arraycopy(robotPositions, index, robotPositions, index + 1, robotCount - index);
+        robotPositions[index] = position;
+        robotCount++;
+    }
+
+    @Override
+    public void addStore(int position, int tenges) {
+        if (storeCount == storePositions.length) {
+            storePositions = Arrays.copyOf(storePositions, storeCount * 2);
+            storeTenges = Arrays.copyOf(storeTenges, storeCount * 2);
+            nearest = new int[storeCount * 2];
+        }
+
+        int index = insertionPoint(storePositions, storeCount, position);
+        System.arraycopy(storePositions, index, storePositions, index + 1, storeCount - index);
+        System.arraycopy(storeTenges, index, storeTenges, index + 1, storeCount - index);
+        storePositions[index] = position;
+        storeTenges[index] = tenges;
+        storeCount++;
+    }
+
+    @Override
+    public int maxProfit() {
+        if (robotCount == 0 || storeCount == 0) {
+            return 0;
+        }
+
+        int subsets = 1 << storeCount;
+        boolean capped = robotCount < storeCount;
+        ensureCapacity(subsets, capped);
+
+        for (int i = 0; i < storeCount; i++) {
+            nearest[i] = (int) nearestDistance(robotPositions, robotCount, storePositions[i]);
+        }
+
+        // First the tenges of every subset, then the best route in place
+        bestRoute[0] = 0;
+        for (int mask = 1; mask < subsets; mask++) {
+            int low = Integer.numberOfTrailingZeros(mask);
+            bestRoute[mask] = bestRoute[mask & (mask - 1)] + storeTenges[low];
+        }
+        for (int mask = 1; mask < subsets; mask++) {
+            int low = Integer.numberOfTrailingZeros(mask);
+            int high = 31 - Integer.numberOfLeadingZeros(mask);
+            int span = storePositions[high] - storePositions[low];
+            int profit = bestRoute[mask] - span - Math.min(nearest[low], nearest[high]);
+            bestRoute[mask] = Math.max(0, profit);
+        }
+
+        if (!capped) {
+            fillLayer(currentLayer, currentLayer, subsets);
+            return currentLayer[subsets - 1];
+        }
+
+        Arrays.fill(previousLayer, 0, subsets, 0);
+        for (int k = 1; k <= robotCount; k++) {
+            fillLayer(previousLayer, currentLayer, subsets);
+            int[] swap = previousLayer;
+            previousLayer = currentLayer;
+            currentLayer = swap;
+        }
+        return previousLayer[subsets - 1];
+    }
+
+    /**
+     * Returns the largest number of bytes held by the engine's tables so far.
+     *
+     * @return peak size of the tables, in bytes
+     */
+    public long getPeakBytes() {
+        return peakBytes;
+    }
+
+    /**
+     * Fills a layer of the partition DP: the best profit of each mask when
+     * its lowest store is either skipped or opens a route, and the rest of
+     * the route's complement is taken from the source layer.
+     * With the same table as source and target there is no cap on routes.
+     *
+     * @param source layer with one route less, or the target itself
+     * @param target layer to fill
+     * @param subsets number of subsets of stores
+     */
+    private void fillLayer(int[] source, int[] target, int subsets) {
+        target[0] = 0;
+        for (int mask = 1; mask < subsets; mask++) {
+            int lowest = mask & -mask;
+            int rest = mask ^ lowest;
+
+            int best = target[rest];
+            for (int sub = rest; ; sub = (sub - 1) & rest) {
+                int route = sub | lowest;
+                best = Math.max(best, bestRoute[route] + source[mask ^ route]);
+                if (sub == 0) {
+                    break;
+                }
+            }
+            target[mask] = best;
+        }
+    }
+
+    /**
+     * Grows the tables when the instance outgrows them and records the peak.
+     *
+     * @param subsets number of subsets of stores
+     * @param capped true if the partition DP needs two layers
+     */
+    private void ensureCapacity(int subsets, boolean capped) {
+        if (bestRoute.length < subsets) {
+            bestRoute = new int[subsets];
+            currentLayer = new int[subsets];
+        }
+        if (capped && previousLayer.length < subsets) {
+            previousLayer = new int[subsets];
+        }
+
+        long bytes = 4L * (bestRoute.length + currentLayer.length + previousLayer.length
+                           + robotPositions.length + storePositions.length + storeTenges.length
+                           + nearest.length);
+        peakBytes = Math.max(peakBytes, bytes);
+    }
+}
@@ -0,0 +1,194 @@
+package silkRoad;
+
+import java.util.Arrays;
+
+/**
+ * Polynomial engine for the SilkRoadContest problem that exploits the
+ * one-dimensional route.
+ *
+ * Every group of stores chosen by the bitmask DP is worth its tenges minus
+ * the cheapest tour from a robot, and on a line that tour only depends on the
+ * leftmost and rightmost stores of the group: it walks the span between them
+ * plus the distance from the nearest robot to whichever end is visited first.
+ * The optimal groups are therefore disjoint runs of the stores sorted by
+ * position, and a run i..j is worth
+ *
+ *     (pre[j] - x[j]) - (pre[i-1] - x[i]) - min(near[i], near[j])
+ *
+ * where pre are the prefix sums of tenges and near is the distance to the
+ * closest robot. Both choices of the min are separable, so the best split
+ * into at most R runs is a DP whose transitions are two running maxima.
+ * Each day costs O(S log R) when the unconstrained optimum already uses at
+ * most R runs, and O(S * R) otherwise. The best value is not concave in the
+ * number of runs, so the cap on runs is handled by the layered DP instead of
+ * a Lagrangian penalty.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class LineEngine extends ContestEngine {
+    private int[] robotPositions; // Robot positions, sorted
+    private int robotCount;
+    private int[] storePositions; // Positions of profitable stores, sorted
+    private int[] storeTenges; // Tenges of profitable stores, same order
+    private int storeCount;
+
+    // Scratch buffers reused across days
+    private long[] nearest;
+    private long[] previousLayer;
+    private long[] currentLayer;
+
+    /**
+     * Constructor for LineEngine.
+     */
+    public LineEngine() {
+        this.robotPositions = new int[8];
+        this.storePositions = new int[8];
+        this.storeTenges = new int[8];
+        this.nearest = new long[8];
+        this.previousLayer = new long[9];
+        this.currentLayer = new long[9];
+    }
+
+    @Override
+    public String getType() {
+        return "line";
+    }
+
+    @Override
+    public void addRobot(int position) {
+        if (robotCount == robotPositions.length) {
+            robotPositions = Arrays.copyOf(robotPositions, robotCount * 2);
+        }
+
+        int index = insertionPoint(robotPositions, robotCount, position);
+        System.arraycopy(robotPositions, index, robotPositions, index + 1, robotCount - index);
+        robotPositions[index] = position;
+        robotCount++;
+    }
+
+    @Override
+    public void addStore(int position, int tenges) {
+        // A store without tenges never improves a route
+        if (tenges <= 0) {
+            return;
+        }
+
+        if (storeCount == storePositions.length) {
+            int newCapacity = storeCount * 2;
+            storePositions = Arrays.copyOf(storePositions, newCapacity);
+            storeTenges = Arrays.copyOf(storeTenges, newCapacity);
+            nearest = new long[newCapacity];
+            previousLayer = new long[newCapacity + 1];
+            currentLayer = new long[newCapacity + 1];
+        }
+
+        int index = insertionPoint(storePositions, storeCount, position);
+        System.arraycopy(storePositions, index, storePositions, index + 1, storeCount - index);
+        System.arraycopy(storeTenges, index, storeTenges, index + 1, storeCount - index);
+        storePositions[index] = position;
+        storeTenges[index] = tenges;
+        storeCount++;
+    }
+
+    @Override
+    public int maxProfit() {
+        if (robotCount == 0 || storeCount == 0) {
+            return 0;
+        }
+
+        for (int i = 0; i < storeCount; i++) {
+            nearest[i] = nearestDistance(robotPositions, robotCount, storePositions[i]);
+        }
+
+        // Unconstrained pass: best value and the fewest runs reaching it
+        long best = 0;
+        int bestRuns = 0;
+        long openLeft = Long.MIN_VALUE; // max of best[i-1] - b[i] - near[i]
+        int openLeftRuns = 0;
+        long openRight = Long.MIN_VALUE; // max of best[i-1] - b[i]
+        int openRightRuns = 0;
+        long prefix = 0;
+
+        for (int j = 0; j < storeCount; j++) {
+            long b = prefix - storePositions[j];
+            if (isBetter(best - b - nearest[j], bestRuns, openLeft, openLeftRuns)) {
+                openLeft = best - b - nearest[j];
+                openLeftRuns = bestRuns;
+            }
+            if (isBetter(best - b, bestRuns, openRight, openRightRuns)) {
+                openRight = best - b;
+                openRightRuns = bestRuns;
+            }
+
+            prefix += storeTenges[j];
+            long a = prefix - storePositions[j];
+
+            if (isBetter(openLeft + a, openLeftRuns + 1, best, bestRuns)) {
+                best = openLeft + a;
+                bestRuns = openLeftRuns + 1;
+            }
+            if (isBetter(openRight + a - nearest[j], openRightRuns + 1, best, bestRuns)) {
+                best = openRight + a - nearest[j];
+                bestRuns = openRightRuns + 1;
+            }
+        }
+
+        if (bestRuns <= robotCount) {
+            return clamp(best);
+        }
+
+        return clamp(maxProfitWithRuns(robotCount));
+    }
+
+    /**
+     * Best split of the sorted stores into at most the given number of runs.
+     * Layer k of the DP holds, for every prefix of stores, the best value
+     * using at most k runs.
+     *
+     * @param maxRuns maximum number of runs (robots available)
+     * @return the best total value
+     */
+    private long maxProfitWithRuns(int maxRuns) {
+        Arrays.fill(previousLayer, 0, storeCount + 1, 0L);
+
+        for (int k = 1; k <= maxRuns; k++) {
+            currentLayer[0] = 0;
+            long openLeft = Long.MIN_VALUE / 4;
+            long openRight = Long.MIN_VALUE / 4;
+            long prefix = 0;
+
+            for (int j = 0; j < storeCount; j++) {
+                long b = prefix - storePositions[j];
+                openLeft = Math.max(openLeft, previousLayer[j] - b - nearest[j]);
+                openRight = Math.max(openRight, previousLayer[j] - b);
+
+                prefix += storeTenges[j];
+                long a = prefix - storePositions[j];
+
+                long value = Math.max(currentLayer[j], openLeft + a);
+                currentLayer[j + 1] = Math.max(value, openRight + a - nearest[j]);
+            }
+
+            long[] swap = previousLayer;
+            previousLayer = currentLayer;
+            currentLayer = swap;
+        }
+
+        return previousLayer[storeCount];
+    }
+
+    /**
+     * Orders (value, runs) pairs: higher value first, then fewer runs.
+     */
+    private static boolean isBetter(long value, int runs, long otherValue, int otherRuns) {
+        return value > otherValue || (value == otherValue && runs < otherRuns);
+    }
+
+    /**
+     * Converts a profit to int, saturating on overflow.
+     */
+    private static int clamp(long value) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, value));
+    }
+}
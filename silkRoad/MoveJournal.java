@@ -0,0 +1,641 @@
+package silkRoad;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Journal of the robot movements of a SilkRoadModel, for undo and redo.
+ *
+ * Each entry only keeps what a movement changed: the robot with its old
+ * and new position and, when it collected tenges, the store with its old
+ * and new tenges and the profit collected. The entries live in parallel
+ * arrays used as a ring, so recording, undoing and redoing are O(1).
+ *
+ * Recording a movement after some undos drops the movements that could
+ * have been redone. An entry can be marked as the continuation of the one
+ * before it, so a movement made of several steps is undone and redone as
+ * a whole. The limit counts movements, not steps: once the journal holds
+ * its limit, recording a new movement drops the oldest one with all its
+ * steps.
+ *
+ * Entries point at the Robot and Store objects, so they stay valid when
+ * other robots or stores are placed or removed; only the movements of a
+ * removed robot or store have to be forgotten.
+ *
+ * A mark lets a batch of the model roll the journal back. From the mark
+ * on, every slot about to be overwritten is saved first, and arrays that
+ * are replaced are kept, so rolling back costs as much as the changes made
+ * since the mark and not the size of the journal.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class MoveJournal {
+    /** Default number of movements kept. */
+    public static final int DEFAULT_LIMIT = 10000;
+
+    private Robot[] robots; // Robot moved by each entry
+    private int[] fromPositions; // Position before the movement
+    private int[] toPositions; // Position after the movement
+    private Store[] stores; // Store the robot collected from, or null
+    private int[] oldTenges; // Tenges of the store before the movement
+    private int[] newTenges; // Tenges of the store after the movement
+    private int[] profits; // Profit collected by the movement
+    private boolean[] continuations; // Whether the entry continues the one before
+    private int start; // Slot of the oldest entry
+    private int count; // Entries recorded, including the undone ones
+    private int applied; // Entries not undone
+    private int movements; // Movements recorded, including the undone ones
+    private int limit; // Maximum movements kept
+    private List<Object> undoLog; // Slots and arrays replaced since the mark, or null
+    private int[] marked; // start, count, applied, movements and limit at the mark
+
+    /**
+     * Constructor for MoveJournal, keeping up to DEFAULT_LIMIT movements.
+     */
+    public MoveJournal() {
+        this(DEFAULT_LIMIT);
+    }
+
+    /**
+     * Constructor for MoveJournal.
+     *
+     * @param limit the maximum number of movements kept
+     */
+    public MoveJournal(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("The journal must keep at least one movement");
+        }
+
+        this.limit = limit;
+        allocate(Math.min(limit, 16));
+    }
+
+    /**
+     * Returns the maximum number of movements kept.
+     *
+     * @return the limit of the journal
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Changes the maximum number of movements kept, dropping the oldest
+     * ones if there are more.
+     *
+     * @param limit the new limit, at least 1
+     */
+    public void setLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("The journal must keep at least one movement");
+        }
+
+        while (movements > limit) {
+            dropOldest();
+        }
+        this.limit = limit;
+        resize(Math.max(count, Math.min(limit, 16)));
+    }
+
+    /**
+     * Records a movement.
+     *
+     * @param robot the robot moved
+     * @param from the position before the movement
+     * @param to the position after the movement
+     * @param store the store the robot collected from, or null
+     * @param tengesBefore tenges of the store before the movement
+     * @param tengesAfter tenges of the store after the movement
+     * @param profit profit collected by the movement
+     */
+    public void record(Robot robot, int from, int to, Store store,
+                       int tengesBefore, int tengesAfter, int profit) {
+        record(robot, from, to, store, tengesBefore, tengesAfter, profit, false);
+    }
+
+    /**
+     * Records a movement, or one step of a movement made of several.
+     *
+     * @param robot the robot moved
+     * @param from the position before the step
+     * @param to the position after the step
+     * @param store the store the robot collected from, or null
+     * @param tengesBefore tenges of the store before the step
+     * @param tengesAfter tenges of the store after the step
+     * @param profit profit collected by the step
+     * @param continuation true if the step continues the previous entry
+     */
+    public void record(Robot robot, int from, int to, Store store,
+                       int tengesBefore, int tengesAfter, int profit, boolean continuation) {
+        // A new movement drops the ones that were undone
+        for (int i = applied; i < count; i++) {
+            int slot = slot(i);
+            if (startsMovement(i)) {
+                movements--;
+            }
+            save(slot);
+            robots[slot] = null;
+            stores[slot] = null;
+        }
+        count = applied;
+
+        boolean starts = !continuation || count == 0;
+        if (starts && movements == limit) {
+            dropOldest();
+        }
+        if (count == robots.length) {
+            resize(robots.length * 2);
+        }
+
+        int slot = slot(count);
+        save(slot);
+        robots[slot] = robot;
+        fromPositions[slot] = from;
+        toPositions[slot] = to;
+        stores[slot] = store;
+        oldTenges[slot] = tengesBefore;
+        newTenges[slot] = tengesAfter;
+        profits[slot] = profit;
+        continuations[slot] = continuation && !starts;
+        count++;
+        applied = count;
+        if (starts) {
+            movements++;
+        }
+    }
+
+    /**
+     * Checks if there is a movement to undo.
+     *
+     * @return true if undo can be called
+     */
+    public boolean canUndo() {
+        return applied > 0;
+    }
+
+    /**
+     * Checks if there is an undone movement to redo.
+     *
+     * @return true if redo can be called
+     */
+    public boolean canRedo() {
+        return applied < count;
+    }
+
+    /**
+     * Steps back over the last applied movement.
+     *
+     * @return the slot of the movement to undo
+     */
+    public int undo() {
+        if (!canUndo()) {
+            throw new IllegalStateException("No movements to undo");
+        }
+        applied--;
+        return slot(applied);
+    }
+
+    /**
+     * Steps forward over the first undone movement.
+     *
+     * @return the slot of the movement to redo
+     */
+    public int redo() {
+        if (!canRedo()) {
+            throw new IllegalStateException("No movements to redo");
+        }
+        applied++;
+        return slot(applied - 1);
+    }
+
+    /**
+     * Checks if the movement redo would step over continues the last
+     * applied one.
+     *
+     * @return true if redo should be called again to finish a movement
+     */
+    public boolean redoContinues() {
+        return canRedo() && continuations[slot(applied)];
+    }
+
+    /**
+     * Forgets every movement.
+     */
+    public void clear() {
+        if (undoLog != null) {
+            undoLog.add(new SavedArrays(this));
+            allocate(robots.length);
+        } else {
+            Arrays.fill(robots, null);
+            Arrays.fill(stores, null);
+        }
+        start = 0;
+        count = 0;
+        applied = 0;
+        movements = 0;
+    }
+
+    /**
+     * Forgets the movements of a robot, keeping the others in order.
+     * Used when the robot is removed from the route.
+     *
+     * @param robot the robot removed
+     */
+    public void forget(Robot robot) {
+        drop(robot, null);
+    }
+
+    /**
+     * Forgets the movements that collected from a store, keeping the
+     * others in order. Used when the store is removed from the route.
+     *
+     * @param store the store removed
+     */
+    public void forget(Store store) {
+        drop(null, store);
+    }
+
+    /**
+     * Returns the number of entries that can be undone; a movement made of
+     * several steps has one entry per step.
+     *
+     * @return the number of applied entries
+     */
+    public int undoableCount() {
+        return applied;
+    }
+
+    /**
+     * Returns the number of entries that can be redone; a movement made of
+     * several steps has one entry per step.
+     *
+     * @return the number of undone entries
+     */
+    public int redoableCount() {
+        return count - applied;
+    }
+
+    /**
+     * Returns the robot moved by an entry.
+     *
+     * @param slot the slot returned by undo or redo
+     * @return the robot
+     */
+    public Robot getRobot(int slot) {
+        return robots[slot];
+    }
+
+    /**
+     * Returns the position of the robot before an entry.
+     *
+     * @param slot the slot returned by undo or redo
+     * @return the old position
+     */
+    public int getFromPosition(int slot) {
+        return fromPositions[slot];
+    }
+
+    /**
+     * Returns the position of the robot after an entry.
+     *
+     * @param slot the slot returned by undo or redo
+     * @return the new position
+     */
+    public int getToPosition(int slot) {
+        return toPositions[slot];
+    }
+
+    /**
+     * Returns the store an entry collected from.
+     *
+     * @param slot the slot returned by undo or redo
+     * @return the store, or null if nothing was collected
+     */
+    public Store getStore(int slot) {
+        return stores[slot];
+    }
+
+    /**
+     * Returns the tenges of the store before an entry.
+     *
+     * @param slot the slot returned by undo or redo
+     * @return the old tenges
+     */
+    public int getOldTenges(int slot) {
+        return oldTenges[slot];
+    }
+
+    /**
+     * Returns the tenges of the store after an entry.
+     *
+     * @param slot the slot returned by undo or redo
+     * @return the new tenges
+     */
+    public int getNewTenges(int slot) {
+        return newTenges[slot];
+    }
+
+    /**
+     * Returns the profit collected by an entry.
+     *
+     * @param slot the slot returned by undo or redo
+     * @return the profit
+     */
+    public int getProfit(int slot) {
+        return profits[slot];
+    }
+
+    /**
+     * Checks if an entry continues the one before it.
+     *
+     * @param slot the slot returned by undo or redo
+     * @return true if the entry is a later step of a movement
+     */
+    public boolean isContinuation(int slot) {
+        return continuations[slot];
+    }
+
+    /**
+     * Returns the slot of the i-th oldest movement, undone ones included.
+     *
+     * @param i the age rank of the movement, 0 for the oldest
+     * @return the slot of the movement
+     */
+    int slotOf(int i) {
+        return slot(i);
+    }
+
+    /**
+     * Marks the newest movements as undone, without changing anything else.
+     * Used to rebuild a journal from a snapshot.
+     *
+     * @param undone the number of newest movements to mark as undone
+     */
+    void rewind(int undone) {
+        applied = Math.max(0, count - undone);
+    }
+
+    /**
+     * Starts keeping what is needed to roll the journal back to its
+     * current state. Used when a batch is opened.
+     */
+    void mark() {
+        undoLog = new ArrayList<>();
+        marked = new int[] {start, count, applied, movements, limit};
+    }
+
+    /**
+     * Stops keeping the changes since the mark. Used when a batch is
+     * committed.
+     */
+    void unmark() {
+        undoLog = null;
+        marked = null;
+    }
+
+    /**
+     * Brings back the journal as it was at the mark, undoing the saved
+     * changes from the newest, and removes the mark. Used when a batch is
+     * rolled back.
+     */
+    void rollback() {
+        for (int i = undoLog.size() - 1; i >= 0; i--) {
+            Object saved = undoLog.get(i);
+            if (saved instanceof SavedArrays) {
+                ((SavedArrays) saved).restore(this);
+            } else {
+                ((SavedEntry) saved).restore(this);
+            }
+        }
+        start = marked[0];
+        count = marked[1];
+        applied = marked[2];
+        movements = marked[3];
+        limit = marked[4];
+        unmark();
+    }
+
+    /**
+     * Saves a slot before it is overwritten, if there is a mark.
+     */
+    private void save(int slot) {
+        if (undoLog != null) {
+            undoLog.add(new SavedEntry(this, slot));
+        }
+    }
+
+    /**
+     * Slot of the i-th oldest entry.
+     */
+    private int slot(int i) {
+        return (start + i) % robots.length;
+    }
+
+    /**
+     * Drops every movement with a step of the robot or the store, sliding
+     * the remaining entries down in place. A movement made of several
+     * steps is dropped as a whole.
+     */
+    private void drop(Robot robot, Store store) {
+        movements = 0;
+        int kept = 0;
+        int keptApplied = 0;
+        int first = 0;
+        while (first < count) {
+            int end = first + 1;
+            while (end < count && continuations[slot(end)]) {
+                end++;
+            }
+
+            boolean mentioned = false;
+            for (int i = first; i < end && !mentioned; i++) {
+                int slot = slot(i);
+                mentioned = (robot != null && robots[slot] == robot)
+                    || (store != null && stores[slot] == store);
+            }
+
+            if (!mentioned) {
+                movements++;
+                for (int i = first; i < end; i++) {
+                    if (i != kept) {
+                        save(slot(kept));
+                    }
+                    moveEntry(slot(i), slot(kept));
+                    if (i < applied) {
+                        keptApplied++;
+                    }
+                    kept++;
+                }
+            }
+            first = end;
+        }
+
+        for (int i = kept; i < count; i++) {
+            save(slot(i));
+            robots[slot(i)] = null;
+            stores[slot(i)] = null;
+        }
+        count = kept;
+        applied = keptApplied;
+    }
+
+    /**
+     * Drops the oldest movement with all its steps.
+     */
+    private void dropOldest() {
+        do {
+            save(start);
+            robots[start] = null;
+            stores[start] = null;
+            start = (start + 1) % robots.length;
+            count--;
+            applied = Math.max(0, applied - 1);
+        } while (count > 0 && continuations[start]);
+        movements--;
+    }
+
+    /**
+     * Checks if the i-th oldest entry is the first step of a movement.
+     */
+    private boolean startsMovement(int i) {
+        return i == 0 || !continuations[slot(i)];
+    }
+
+    /**
+     * Copies the entry in one slot to another.
+     */
+    private void moveEntry(int from, int to) {
+        if (from == to) {
+            return;
+        }
+        robots[to] = robots[from];
+        fromPositions[to] = fromPositions[from];
+        toPositions[to] = toPositions[from];
+        stores[to] = stores[from];
+        oldTenges[to] = oldTenges[from];
+        newTenges[to] = newTenges[from];
+        profits[to] = profits[from];
+        continuations[to] = continuations[from];
+    }
+
+    private void allocate(int capacity) {
+        robots = new Robot[capacity];
+        fromPositions = new int[capacity];
+        toPositions = new int[capacity];
+        stores = new Store[capacity];
+        oldTenges = new int[capacity];
+        newTenges = new int[capacity];
+        profits = new int[capacity];
+        continuations = new boolean[capacity];
+    }
+
+    /**
+     * Moves the entries to new arrays, the oldest one first.
+     *
+     * @param capacity the new capacity, at least the number of entries
+     */
+    private void resize(int capacity) {
+        if (undoLog != null) {
+            undoLog.add(new SavedArrays(this)); // They are not written again
+        }
+        Robot[] oldRobots = robots;
+        int[] oldFrom = fromPositions;
+        int[] oldTo = toPositions;
+        Store[] oldStores = stores;
+        int[] oldBefore = oldTenges;
+        int[] oldAfter = newTenges;
+        int[] oldProfits = profits;
+        boolean[] oldContinuations = continuations;
+        int oldLength = oldRobots.length;
+
+        allocate(capacity);
+        for (int i = 0; i < count; i++) {
+            int from = (start + i) % oldLength;
+            robots[i] = oldRobots[from];
+            fromPositions[i] = oldFrom[from];
+            toPositions[i] = oldTo[from];
+            stores[i] = oldStores[from];
+            oldTenges[i] = oldBefore[from];
+            newTenges[i] = oldAfter[from];
+            profits[i] = oldProfits[from];
+            continuations[i] = oldContinuations[from];
+        }
+        start = 0;
+    }
+
+    /**
+     * An entry as it was before its slot was overwritten.
+     */
+    private static class SavedEntry {
+        private final int slot;
+        private final Robot robot;
+        private final int from;
+        private final int to;
+        private final Store store;
+        private final int tengesBefore;
+        private final int tengesAfter;
+        private final int profit;
+        private final boolean continuation;
+
+        SavedEntry(MoveJournal journal, int slot) {
+            this.slot = slot;
+            robot = journal.robots[slot];
+            from = journal.fromPositions[slot];
+            to = journal.toPositions[slot];
+            store = journal.stores[slot];
+            tengesBefore = journal.oldTenges[slot];
+            tengesAfter = journal.newTenges[slot];
+            profit = journal.profits[slot];
+            continuation = journal.continuations[slot];
+        }
+
+        void restore(MoveJournal journal) {
+            journal.robots[slot] = robot;
+            journal.fromPositions[slot] = from;
+            journal.toPositions[slot] = to;
+            journal.stores[slot] = store;
+            journal.oldTenges[slot] = tengesBefore;
+            journal.newTenges[slot] = tengesAfter;
+            journal.profits[slot] = profit;
+            journal.continuations[slot] = continuation;
+        }
+    }
+
+    /**
+     * Arrays the journal stopped using, kept as they were.
+     */
+    private static class SavedArrays {
+        private final Robot[] robots;
+        private final int[] fromPositions;
+        private final int[] toPositions;
+        private final Store[] stores;
+        private final int[] oldTenges;
+        private final int[] newTenges;
+        private final int[] profits;
+        private final boolean[] continuations;
+
+        SavedArrays(MoveJournal journal) {
+            robots = journal.robots;
+            fromPositions = journal.fromPositions;
+            toPositions = journal.toPositions;
+            stores = journal.stores;
+            oldTenges = journal.oldTenges;
+            newTenges = journal.newTenges;
+            profits = journal.profits;
+            continuations = journal.continuations;
+        }
+
+        void restore(MoveJournal journal) {
+            journal.robots = robots;
+            journal.fromPositions = fromPositions;
+            journal.toPositions = toPositions;
+            journal.stores = stores;
+            journal.oldTenges = oldTenges;
+            journal.newTenges = newTenges;
+            journal.profits = profits;
+            journal.continuations = continuations;
+        }
+    }
+}
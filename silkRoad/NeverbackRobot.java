@@ -24,6 +24,11 @@ public class NeverbackRobot extends Robot {
         return "neverback";
     }
     
+    @Override
+    public byte getTypeCode() {
+        return NEVERBACK;
+    }
+    
     @Override
     public boolean canMove(int moveDistance) {
         return moveDistance >= 0; // Cannot move backwards
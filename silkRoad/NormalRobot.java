@@ -47,6 +47,11 @@ public class NormalRobot extends Robot {
         return "normal";
     }
     
+    @Override
+    public byte getTypeCode() {
+        return NORMAL;
+    }
+    
     @Override
     public boolean canMove(int moveDistance) {
         return true; // Normal robots can move in any direction
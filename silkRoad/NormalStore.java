@@ -38,6 +38,11 @@ public class NormalStore extends Store {
         return "normal";
     }
     
+    @Override
+    public byte getTypeCode() {
+        return NORMAL;
+    }
+    
     @Override
     public boolean canRobotTakeTenges(Robot robot) {
         return true; // Any robot can take tenges
@@ -0,0 +1,270 @@
+package silkRoad;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Exact bitmask engine that spreads the work of each day over a ForkJoinPool.
+ *
+ * It solves the same partition DP as BitmaskEngine, reorganized so that its
+ * pieces are independent: the route table of each robot is built by its own
+ * task, the best robot of each subset is taken in parallel over ranges of
+ * masks, and the partition DP is written in pull form and processed layer by
+ * layer in order of popcount. A mask only reads masks with fewer stores, so
+ * every mask of a layer can be computed at the same time.
+ * The results are the same as the sequential engine for any thread count.
+ *
+ * An engine created with a number of threads owns its pool and shuts it
+ * down when closed; a pool passed in is left to its owner.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class ParallelEngine extends BitmaskEngine implements AutoCloseable {
+    // Below this many masks a task runs sequentially
+    private static final int GRAIN = 256;
+
+    private final ForkJoinPool pool;
+    private final boolean ownsPool; // Whether close shuts the pool down
+
+    // Scratch buffers reused across days
+    private int[] bestProfits; // [mask]
+    private int[] masksByPopcount; // Masks sorted by number of stores
+    private int[] layerStart; // layerStart[c] = first index of popcount c
+
+    /**
+     * Constructor for ParallelEngine using the common pool.
+     */
+    public ParallelEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for ParallelEngine with its own pool, shut down by close.
+     *
+     * @param threads number of worker threads
+     */
+    public ParallelEngine(int threads) {
+        this(new ForkJoinPool(threads), true);
+    }
+
+    /**
+     * Constructor for ParallelEngine on a given pool, which close leaves
+     * running.
+     *
+     * @param pool pool that runs the tasks
+     */
+    public ParallelEngine(ForkJoinPool pool) {
+        this(pool, false);
+    }
+
+    private ParallelEngine(ForkJoinPool pool, boolean ownsPool) {
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.bestProfits = new int[0];
+        this.masksByPopcount = new int[0];
+        this.layerStart = new int[0];
+    }
+
+    @Override
+    public String getType() {
+        return "parallel";
+    }
+
+    /**
+     * Returns the number of worker threads of the pool.
+     *
+     * @return parallelism of the pool
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Shuts down the pool if the engine created it.
+     */
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    @Override
+    public int maxProfit() {
+        if (robotCount == 0 || storeCount == 0) {
+            return 0;
+        }
+
+        int subsets = subsetCount();
+        int width = robotCount + 1;
+        ensureCapacity(subsets, width);
+        ensureLayers(subsets);
+
+        fillSubsetTenges(subsets);
+        pool.invoke(new RobotTablesTask(0, robotCount, subsets));
+        pool.invoke(new BestProfitsTask(1, subsets, subsets));
+
+        // dp[mask][k] = best profit splitting the stores in mask among exactly k robots
+        Arrays.fill(dp, 0, width, INF);
+        dp[0] = 0;
+
+        for (int count = 1; count <= storeCount; count++) {
+            pool.invoke(new LayerTask(layerStart[count], layerStart[count + 1], width));
+        }
+
+        int result = 0;
+        for (int i = 0; i < subsets * width; i++) {
+            result = Math.max(result, dp[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Fills one mask of the partition DP from the masks with fewer stores.
+     *
+     * @param mask stores to split
+     * @param width number of robot counts in the partition DP
+     */
+    private void pullMask(int mask, int width) {
+        int row = mask * width;
+        dp[row] = INF;
+        for (int k = 1; k < width; k++) {
+            int best = INF;
+            for (int submask = mask; submask > 0; submask = (submask - 1) & mask) {
+                int rest = dp[(mask ^ submask) * width + k - 1];
+                if (rest != INF) {
+                    best = Math.max(best, rest + bestProfits[submask]);
+                }
+            }
+            dp[row + k] = best;
+        }
+    }
+
+    /**
+     * Groups the masks by popcount with a counting sort. The order only
+     * depends on the number of stores, so it is rebuilt when that changes.
+     *
+     * @param subsets number of subsets of stores
+     */
+    private void ensureLayers(int subsets) {
+        if (bestProfits.length < subsets) {
+            bestProfits = new int[subsets];
+        }
+        if (masksByPopcount.length == subsets) {
+            return;
+        }
+
+        masksByPopcount = new int[subsets];
+        layerStart = new int[storeCount + 2];
+        for (int mask = 0; mask < subsets; mask++) {
+            layerStart[Integer.bitCount(mask) + 1]++;
+        }
+        for (int c = 1; c <= storeCount + 1; c++) {
+            layerStart[c] += layerStart[c - 1];
+        }
+
+        int[] next = Arrays.copyOf(layerStart, storeCount + 1);
+        for (int mask = 0; mask < subsets; mask++) {
+            masksByPopcount[next[Integer.bitCount(mask)]++] = mask;
+        }
+    }
+
+    /**
+     * Builds the route tables of a range of robots.
+     */
+    private class RobotTablesTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int subsets;
+
+        RobotTablesTask(int from, int to, int subsets) {
+            this.from = from;
+            this.to = to;
+            this.subsets = subsets;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1 || (long) (to - from) * subsets <= GRAIN) {
+                for (int r = from; r < to; r++) {
+                    fillRobotProfits(r, subsets);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new RobotTablesTask(from, middle, subsets),
+                      new RobotTablesTask(middle, to, subsets));
+        }
+    }
+
+    /**
+     * Takes the best robot of each mask in a range.
+     */
+    private class BestProfitsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int subsets;
+
+        BestProfitsTask(int from, int to, int subsets) {
+            this.from = from;
+            this.to = to;
+            this.subsets = subsets;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                for (int mask = from; mask < to; mask++) {
+                    int best = 0;
+                    for (int r = 0; r < robotCount; r++) {
+                        best = Math.max(best, robotProfits[r * subsets + mask]);
+                    }
+                    bestProfits[mask] = best;
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new BestProfitsTask(from, middle, subsets),
+                      new BestProfitsTask(middle, to, subsets));
+        }
+    }
+
+    /**
+     * Fills the partition DP for a range of one popcount layer.
+     */
+    private class LayerTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int width;
+
+        LayerTask(int from, int to, int width) {
+            this.from = from;
+            this.to = to;
+            this.width = width;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN / width + 1) {
+                for (int i = from; i < to; i++) {
+                    pullMask(masksByPopcount[i], width);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new LayerTask(from, middle, width),
+                      new LayerTask(middle, to, width));
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package silkRoad;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Upper bound on the profit of a SilkRoadModel, kept up to date as robots
+ * and stores come and go.
+ *
+ * The bound adds, for every store, its initial tenges minus the circular
+ * distance to the nearest robot's initial position, when that is positive.
+ * The robots are indexed by position, so the nearest robot of a store is
+ * found in O(log R). A new or removed robot only changes the stores between
+ * its two neighbouring robots, and only those are recomputed.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class ProfitBound {
+    private int length;
+    private TreeMap<Integer, Integer> robotCounts; // Initial position -> robots there
+    private TreeMap<Integer, List<Store>> storesAt; // Position -> stores there
+    private Map<Store, Integer> contributions; // Store -> its part of the bound
+    private int total;
+
+    /**
+     * Constructor for ProfitBound.
+     *
+     * @param length the length of the circular route
+     */
+    public ProfitBound(int length) {
+        this.length = length;
+        this.robotCounts = new TreeMap<>();
+        this.storesAt = new TreeMap<>();
+        this.contributions = new IdentityHashMap<>();
+        this.total = 0;
+    }
+
+    /**
+     * Returns the current bound.
+     *
+     * @return the maximum possible profit in tenges
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Adds a robot at its initial position.
+     *
+     * @param position the initial position of the robot
+     */
+    public void addRobot(int position) {
+        Integer count = robotCounts.get(position);
+        robotCounts.put(position, count == null ? 1 : count + 1);
+
+        // Another robot already covers these stores
+        if (count == null) {
+            recomputeAround(position);
+        }
+    }
+
+    /**
+     * Adds many robots and stores at once. Every store is computed once
+     * against all the robots, instead of once per robot near it.
+     *
+     * @param robotPositions initial positions of the new robots
+     * @param robotCount number of positions to read from robotPositions
+     * @param newStores the new stores
+     */
+    public void addAll(int[] robotPositions, int robotCount, List<Store> newStores) {
+        boolean newPosition = false;
+        for (int i = 0; i < robotCount; i++) {
+            Integer count = robotCounts.put(robotPositions[i], 1);
+            if (count != null) {
+                robotCounts.put(robotPositions[i], count + 1);
+            } else {
+                newPosition = true;
+            }
+        }
+
+        // A new robot position can bring any old store closer to a robot
+        if (newPosition) {
+            for (List<Store> here : storesAt.values()) {
+                recompute(here);
+            }
+        }
+        for (Store store : newStores) {
+            addStore(store);
+        }
+    }
+
+    /**
+     * Removes a robot from its initial position.
+     *
+     * @param position the initial position of the robot
+     */
+    public void removeRobot(int position) {
+        Integer count = robotCounts.get(position);
+        if (count == null) {
+            return;
+        }
+
+        if (count > 1) {
+            robotCounts.put(position, count - 1);
+        } else {
+            robotCounts.remove(position);
+            recomputeAround(position);
+        }
+    }
+
+    /**
+     * Adds a store at its current position.
+     *
+     * @param store the store to add
+     */
+    public void addStore(Store store) {
+        storesAt.computeIfAbsent(store.getPosition(), key -> new ArrayList<>()).add(store);
+        int contribution = contributionOf(store);
+        contributions.put(store, contribution);
+        total += contribution;
+    }
+
+    /**
+     * Removes a store.
+     *
+     * @param store the store to remove
+     */
+    public void removeStore(Store store) {
+        Integer contribution = contributions.remove(store);
+        if (contribution == null) {
+            return;
+        }
+
+        total -= contribution;
+        List<Store> here = storesAt.get(store.getPosition());
+        here.remove(store);
+        if (here.isEmpty()) {
+            storesAt.remove(store.getPosition());
+        }
+    }
+
+    /**
+     * Removes every robot and store.
+     */
+    public void clear() {
+        robotCounts.clear();
+        storesAt.clear();
+        contributions.clear();
+        total = 0;
+    }
+
+    /**
+     * Recomputes the stores whose nearest robot may have changed because
+     * of a robot added to or removed from the given position: those strictly
+     * between the robots on each side of it.
+     *
+     * @param position the position of the robot
+     */
+    private void recomputeAround(int position) {
+        Integer previous = robotCounts.lowerKey(position);
+        if (previous == null) {
+            previous = lastRobotOtherThan(position);
+        }
+        Integer next = robotCounts.higherKey(position);
+        if (next == null) {
+            next = firstRobotOtherThan(position);
+        }
+
+        if (previous == null || next == null) {
+            // No other robot, every store depends on this one
+            for (List<Store> here : storesAt.values()) {
+                recompute(here);
+            }
+        } else if (previous < next) {
+            recompute(storesAt.subMap(previous, false, next, false));
+        } else {
+            // The arc wraps past the end of the route
+            recompute(storesAt.tailMap(previous, false));
+            recompute(storesAt.headMap(next, false));
+        }
+    }
+
+    private Integer lastRobotOtherThan(int position) {
+        Integer last = robotCounts.isEmpty() ? null : robotCounts.lastKey();
+        return last == null || last == position ? null : last;
+    }
+
+    private Integer firstRobotOtherThan(int position) {
+        Integer first = robotCounts.isEmpty() ? null : robotCounts.firstKey();
+        return first == null || first == position ? null : first;
+    }
+
+    private void recompute(Map<Integer, List<Store>> range) {
+        for (List<Store> here : range.values()) {
+            recompute(here);
+        }
+    }
+
+    private void recompute(List<Store> here) {
+        for (Store store : here) {
+            int contribution = contributionOf(store);
+            total += contribution - contributions.put(store, contribution);
+        }
+    }
+
+    /**
+     * Benefit of a store for the nearest robot, or 0 if it does not pay.
+     *
+     * @param store the store
+     * @return the store's part of the bound
+     */
+    private int contributionOf(Store store) {
+        int initialTenges = store.getInitialTenges();
+        if (initialTenges <= 0 || robotCounts.isEmpty()) {
+            return 0;
+        }
+
+        int position = store.getPosition();
+        Integer after = robotCounts.ceilingKey(position);
+        if (after == null) {
+            after = robotCounts.firstKey();
+        }
+        Integer before = robotCounts.floorKey(position);
+        if (before == null) {
+            before = robotCounts.lastKey();
+        }
+
+        int distance = Math.min(distance(after, position), distance(before, position));
+        return Math.max(0, initialTenges - distance);
+    }
+
+    /**
+     * Shortest distance between two positions on the circular route.
+     */
+    private int distance(int from, int to) {
+        int direct = Math.abs(to - from);
+        return Math.min(direct, length - direct);
+    }
+}
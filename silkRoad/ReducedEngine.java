@@ -0,0 +1,266 @@
+package silkRoad;
+
+import java.util.Arrays;
+
+/**
+ * Exact bitmask engine that shrinks the instance before running the DP.
+ *
+ * The reduction keeps the answer unchanged:
+ * - Stores without tenges are dropped, since they never improve a route.
+ * - A route only depends on the distance from its end stores to the nearest
+ *   robot, so the robots are replaced by that distance per store. Robots
+ *   that are not the nearest one of any store disappear from the DP, and
+ *   the number of robots is only kept as the cap on the number of routes.
+ * - The stores, sorted by position, are cut into independent clusters at
+ *   every gap that neither side can pay to cross: no run of stores ending
+ *   left of the gap has enough tenges to walk to the first store after it,
+ *   and symmetrically from the right. A route crossing such a gap is never
+ *   better than one of its two halves, so no optimal route crosses it.
+ *
+ * Each cluster is solved with the bitmask DP, which gives its best profit
+ * with at most k routes for every k, and the clusters are combined with a
+ * max-plus convolution capped at the number of robots. The exponent of the
+ * DP is the size of the largest cluster instead of the number of stores.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class ReducedEngine extends ContestEngine {
+    private int[] robotPositions; // Robot positions, sorted
+    private int robotCount;
+    private int[] storePositions; // Positions of profitable stores, sorted
+    private int[] storeTenges; // Tenges of profitable stores, same order
+    private int storeCount;
+
+    // Scratch buffers reused across days
+    private long[] nearest; // [store] distance to the closest robot
+    private long[] prefix; // [store + 1] prefix sums of tenges
+    private long[] suffixMaxA; // [store] max of prefix[j + 1] - x[j] for j >= store
+    private long[] subsetTenges; // [mask] of the current cluster
+    private long[] bestRoute; // [mask] of the current cluster
+    private long[] previousLayer; // [mask] at most k - 1 routes
+    private long[] currentLayer; // [mask] at most k routes
+    private int largestCluster;
+
+    /**
+     * Constructor for ReducedEngine.
+     */
+    public ReducedEngine() {
+        this.robotPositions = new int[8];
+        this.storePositions = new int[8];
+        this.storeTenges = new int[8];
+        this.nearest = new long[8];
+        this.prefix = new long[9];
+        this.suffixMaxA = new long[8];
+        this.subsetTenges = new long[0];
+        this.bestRoute = new long[0];
+        this.previousLayer = new long[0];
+        this.currentLayer = new long[0];
+    }
+
+    @Override
+    public String getType() {
+        return "reduced";
+    }
+
+    @Override
+    public void addRobot(int position) {
+        if (robotCount == robotPositions.length) {
+            robotPositions = Arrays.copyOf(robotPositions, robotCount * 2);
+        }
+
+        int index = insertionPoint(robotPositions, robotCount, position);
+        System.arraycopy(robotPositions, index, robotPositions, index + 1, robotCount - index);
+        robotPositions[index] = position;
+        robotCount++;
+    }
+
+    @Override
+    public void addStore(int position, int tenges) {
+        // A store without tenges never improves a route
+        if (tenges <= 0) {
+            return;
+        }
+
+        if (storeCount == storePositions.length) {
+            int newCapacity = storeCount * 2;
+            storePositions = Arrays.copyOf(storePositions, newCapacity);
+            storeTenges = Arrays.copyOf(storeTenges, newCapacity);
+            nearest = new long[newCapacity];
+            prefix = new long[newCapacity + 1];
+            suffixMaxA = new long[newCapacity];
+        }
+
+        int index = insertionPoint(storePositions, storeCount, position);
+        System.arraycopy(storePositions, index, storePositions, index + 1, storeCount - index);
+        System.arraycopy(storeTenges, index, storeTenges, index + 1, storeCount - index);
+        storePositions[index] = position;
+        storeTenges[index] = tenges;
+        storeCount++;
+    }
+
+    @Override
+    public int maxProfit() {
+        largestCluster = 0;
+        if (robotCount == 0 || storeCount == 0) {
+            return 0;
+        }
+
+        prefix[0] = 0;
+        for (int i = 0; i < storeCount; i++) {
+            nearest[i] = nearestDistance(robotPositions, robotCount, storePositions[i]);
+            prefix[i + 1] = prefix[i] + storeTenges[i];
+        }
+
+        suffixMaxA[storeCount - 1] = prefix[storeCount] - storePositions[storeCount - 1];
+        for (int j = storeCount - 2; j >= 0; j--) {
+            suffixMaxA[j] = Math.max(suffixMaxA[j + 1], prefix[j + 1] - storePositions[j]);
+        }
+
+        int maxRoutes = Math.min(robotCount, storeCount);
+        long[] total = new long[maxRoutes + 1];
+        int totalRoutes = 0;
+
+        int start = 0;
+        long minB = Long.MAX_VALUE; // min of prefix[i] - x[i] for i in the cluster
+        for (int m = 0; m < storeCount; m++) {
+            minB = Math.min(minB, prefix[m] - storePositions[m]);
+
+            if (m == storeCount - 1 || isCut(m, minB)) {
+                long[] profile = solveCluster(start, m + 1, maxRoutes);
+                totalRoutes = combine(total, totalRoutes, profile, maxRoutes);
+                start = m + 1;
+                minB = Long.MAX_VALUE;
+            }
+        }
+
+        return (int) Math.min(Integer.MAX_VALUE, total[totalRoutes]);
+    }
+
+    /**
+     * Returns the number of stores of the largest cluster of the last
+     * maxProfit call, which is the exponent the DP actually paid.
+     *
+     * @return size of the largest cluster
+     */
+    public int getLargestCluster() {
+        return largestCluster;
+    }
+
+    /**
+     * Checks whether no optimal route crosses the gap after store m.
+     *
+     * @param m last store before the gap
+     * @param minB minimum of prefix[i] - x[i] over the stores of the cluster up to m
+     * @return true if the stores can be split after m
+     */
+    private boolean isCut(int m, long minB) {
+        // No run i..m can pay the walk from x[i] to x[m + 1]
+        boolean leftCannotCross = prefix[m + 1] - storePositions[m + 1] - minB <= 0;
+        // No run m + 1..j can pay the walk from x[m] to x[j]
+        boolean rightCannotCross = suffixMaxA[m + 1] - prefix[m + 1] + storePositions[m] <= 0;
+        return leftCannotCross && rightCannotCross;
+    }
+
+    /**
+     * Solves a cluster with the bitmask DP.
+     *
+     * @param from first store of the cluster
+     * @param to end of the cluster (exclusive)
+     * @param maxRoutes cap on the number of routes
+     * @return profile where position k is the best profit with at most k routes
+     */
+    private long[] solveCluster(int from, int to, int maxRoutes) {
+        int size = to - from;
+        int routes = Math.min(maxRoutes, size);
+        long[] profile = new long[routes + 1];
+        largestCluster = Math.max(largestCluster, size);
+
+        if (size == 1) {
+            profile[1] = Math.max(0, storeTenges[from] - nearest[from]);
+            return profile;
+        }
+
+        int subsets = 1 << size;
+        ensureCapacity(subsets);
+
+        subsetTenges[0] = 0;
+        bestRoute[0] = 0;
+        for (int mask = 1; mask < subsets; mask++) {
+            int low = Integer.numberOfTrailingZeros(mask);
+            int high = 31 - Integer.numberOfLeadingZeros(mask);
+            subsetTenges[mask] = subsetTenges[mask & (mask - 1)] + storeTenges[from + low];
+
+            long span = storePositions[from + high] - storePositions[from + low];
+            long approach = Math.min(nearest[from + low], nearest[from + high]);
+            bestRoute[mask] = Math.max(0, subsetTenges[mask] - span - approach);
+        }
+
+        // layer[mask] = best profit with the stores of mask and at most k routes
+        Arrays.fill(previousLayer, 0, subsets, 0L);
+        for (int k = 1; k <= routes; k++) {
+            currentLayer[0] = 0;
+            for (int mask = 1; mask < subsets; mask++) {
+                int lowest = mask & -mask;
+                int rest = mask ^ lowest;
+
+                // Either the lowest store is skipped or it opens a route
+                long best = currentLayer[rest];
+                for (int sub = rest; ; sub = (sub - 1) & rest) {
+                    int route = sub | lowest;
+                    best = Math.max(best, bestRoute[route] + previousLayer[mask ^ route]);
+                    if (sub == 0) {
+                        break;
+                    }
+                }
+                currentLayer[mask] = best;
+            }
+
+            profile[k] = currentLayer[subsets - 1];
+            long[] swap = previousLayer;
+            previousLayer = currentLayer;
+            currentLayer = swap;
+        }
+
+        return profile;
+    }
+
+    /**
+     * Adds a cluster to the running max-plus convolution of the clusters
+     * already solved, capped at the given number of routes.
+     *
+     * @param total best profit with at most k routes over the previous clusters
+     * @param totalRoutes number of valid entries of total minus one
+     * @param profile profile of the new cluster
+     * @param maxRoutes cap on the number of routes
+     * @return number of valid entries of total minus one, after the merge
+     */
+    private static int combine(long[] total, int totalRoutes, long[] profile, int maxRoutes) {
+        int newRoutes = Math.min(maxRoutes, totalRoutes + profile.length - 1);
+
+        for (int k = newRoutes; k >= 0; k--) {
+            long best = 0;
+            int fromProfile = Math.max(0, k - totalRoutes);
+            for (int b = fromProfile; b <= Math.min(k, profile.length - 1); b++) {
+                best = Math.max(best, total[k - b] + profile[b]);
+            }
+            total[k] = best;
+        }
+
+        return newRoutes;
+    }
+
+    /**
+     * Grows the cluster buffers when a cluster outgrows them.
+     *
+     * @param subsets number of subsets of the cluster
+     */
+    private void ensureCapacity(int subsets) {
+        if (bestRoute.length < subsets) {
+            subsetTenges = new long[subsets];
+            bestRoute = new long[subsets];
+            previousLayer = new long[subsets];
+            currentLayer = new long[subsets];
+        }
+    }
+}
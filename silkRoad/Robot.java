@@ -1,6 +1,7 @@
 package silkRoad;
 
 import shapes.Circle;
+import java.nio.IntBuffer;
 
 /**
  * Abstract base class representing a robot that can move along the silk road route.
@@ -10,13 +11,21 @@ import shapes.Circle;
  * @version 5.0
  */
 public abstract class Robot {
+    /** Type code of normal robots, as in SilkRoad.robots(). */
+    public static final byte NORMAL = 0;
+    /** Type code of neverback robots. */
+    public static final byte NEVERBACK = 1;
+    /** Type code of tender robots. */
+    public static final byte TENDER = 2;
+    /** Type code of lazy robots. */
+    public static final byte LAZY = 3;
+    
     protected int initialPosition;
     protected int currentPosition;
     protected String color;
     protected Circle circle;
     protected int totalProfit;
-    protected int[] profitPerMove;
-    protected int moveCount;
+    protected IntHistory profitPerMove;
     protected boolean isBlinking;
     protected boolean isVisible;
     
@@ -30,14 +39,10 @@ public abstract class Robot {
         this.initialPosition = position;
         this.currentPosition = position;
         this.color = color;
-        
-        this.circle = new Circle();
-        this.circle.changeSize(15);
-        this.circle.changeColor(color);
+        this.circle = null; // Created the first time the robot is drawn
         
         this.totalProfit = 0;
-        this.profitPerMove = new int[100];
-        this.moveCount = 0;
+        this.profitPerMove = new IntHistory();
         this.isBlinking = false;
         this.isVisible = false;
     }
@@ -50,6 +55,14 @@ public abstract class Robot {
      */
     public abstract String getType();
     
+    /**
+     * Returns the robot type as a number, to compare types without strings.
+     * Must be implemented by subclasses.
+     * 
+     * @return NORMAL, NEVERBACK, TENDER or LAZY
+     */
+    public abstract byte getTypeCode();
+    
     /**
      * Checks if a robot can move in a specific direction.
      * Can be overridden by subclasses to implement movement restrictions.
@@ -82,6 +95,7 @@ public abstract class Robot {
      * Makes the robot visible on the canvas.
      */
     public void makeVisible() {
+        ensureCircle();
         circle.makeVisible();
         isVisible = true;
     }
@@ -90,7 +104,9 @@ public abstract class Robot {
      * Makes the robot invisible on the canvas.
      */
     public void makeInvisible() {
-        circle.makeInvisible();
+        if (circle != null) {
+            circle.makeInvisible();
+        }
         isVisible = false;
     }
     
@@ -101,7 +117,9 @@ public abstract class Robot {
      * @param y y coordinate on the canvas
      */
     public void updateCanvasPosition(int x, int y) {
-        circle.makeInvisible();
+        if (circle != null) {
+            circle.makeInvisible();
+        }
         
         circle = new Circle();
         circle.changeSize(15);
@@ -132,8 +150,21 @@ public abstract class Robot {
      */
     public void addProfit(int profit, int position) {
         this.totalProfit += profit;
-        this.profitPerMove[moveCount] = profit;
-        moveCount++;
+        this.profitPerMove.add(profit);
+    }
+    
+    /**
+     * Removes a profit registered for this robot, even if the history
+     * no longer keeps it because of its limit.
+     * Used to undo a movement.
+     * 
+     * @param profit the profit of the movement undone
+     */
+    public void removeLastProfit(int profit) {
+        if (profitPerMove.size() > 0) {
+            profitPerMove.removeLast();
+        }
+        this.totalProfit -= profit;
     }
     
     /**
@@ -178,9 +209,50 @@ public abstract class Robot {
      * @return array with profits for each movement
      */
     public int[] getProfitHistory() {
-        int[] history = new int[moveCount];
-        System.arraycopy(profitPerMove, 0, history, 0, moveCount);
-        return history;
+        return profitPerMove.toArray();
+    }
+    
+    /**
+     * Returns a read-only view of the profit history, without copying it.
+     * The view is only valid until the robot registers or removes a profit.
+     * 
+     * @return the profits of each movement kept, oldest first
+     */
+    public IntBuffer profitHistory() {
+        return profitPerMove.view();
+    }
+    
+    /**
+     * Limits the profit history to the newest movements. The total profit
+     * still counts every movement.
+     * 
+     * @param limit the number of movements kept, or 0 to keep all of them
+     */
+    public void setProfitHistoryLimit(int limit) {
+        profitPerMove.setLimit(limit);
+    }
+    
+    /**
+     * Returns the number of movements the profit history keeps.
+     * 
+     * @return the limit, or 0 if every movement is kept
+     */
+    public int getProfitHistoryLimit() {
+        return profitPerMove.getLimit();
+    }
+    
+    /**
+     * Sets the total profit and history saved in a snapshot.
+     * 
+     * @param totalProfit the total profit
+     * @param history the profits of each movement kept, oldest first
+     */
+    protected void restoreProfit(int totalProfit, IntBuffer history) {
+        profitPerMove.clear();
+        while (history.hasRemaining()) {
+            profitPerMove.add(history.get());
+        }
+        this.totalProfit = totalProfit;
     }
     
     /**
@@ -188,8 +260,7 @@ public abstract class Robot {
      */
     public void resetProfit() {
         this.totalProfit = 0;
-        this.profitPerMove = new int[100];
-        this.moveCount = 0;
+        this.profitPerMove.clear();
     }
     
     /**
@@ -209,6 +280,7 @@ public abstract class Robot {
      */
     public void blink() {
         if (isBlinking) {
+            ensureCircle();
             if (isVisible) {
                 circle.makeInvisible();
                 isVisible = false;
@@ -227,12 +299,25 @@ public abstract class Robot {
     public void setVisible(boolean visible) {
         this.isVisible = visible;
         if (visible && !isBlinking) {
+            ensureCircle();
             circle.makeVisible();
-        } else if (!visible) {
+        } else if (!visible && circle != null) {
             circle.makeInvisible();
         }
     }
     
+    /**
+     * Creates the circle if the robot has never been drawn.
+     * Robots of a headless SilkRoadModel never need one.
+     */
+    private void ensureCircle() {
+        if (circle == null) {
+            circle = new Circle();
+            circle.changeSize(15);
+            circle.changeColor(color);
+        }
+    }
+    
     /**
      * Indicates if the robot is currently visible.
      * 
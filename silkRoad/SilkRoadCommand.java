@@ -0,0 +1,179 @@
+package silkRoad;
+
+/**
+ * One mutating call of the Silk Road simulator, to be applied later in a
+ * batch with SilkRoadModel.apply.
+ *
+ * Commands are built with the static factories, one per method of the
+ * model, and carry the same arguments.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class SilkRoadCommand {
+    private final byte code; // Same codes as the CommandLog
+    private final int[] arguments;
+    private final String type; // Robot or store type, or null
+
+    private SilkRoadCommand(byte code, String type, int... arguments) {
+        this.code = code;
+        this.type = type;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Command that places a normal robot.
+     *
+     * @param position the initial position of the robot
+     * @return the command
+     */
+    public static SilkRoadCommand placeRobot(int position) {
+        return new SilkRoadCommand(CommandLog.PLACE_ROBOT, null, position);
+    }
+
+    /**
+     * Command that places a robot of a given type.
+     *
+     * @param position the initial position of the robot
+     * @param type the robot type: "normal", "neverback", "tender", "lazy"
+     * @return the command
+     */
+    public static SilkRoadCommand placeRobot(int position, String type) {
+        return new SilkRoadCommand(CommandLog.PLACE_TYPED_ROBOT, type, position);
+    }
+
+    /**
+     * Command that places a normal store.
+     *
+     * @param position the position of the store
+     * @param tenges the initial amount of tenges in the store
+     * @return the command
+     */
+    public static SilkRoadCommand placeStore(int position, int tenges) {
+        return new SilkRoadCommand(CommandLog.PLACE_STORE, null, position, tenges);
+    }
+
+    /**
+     * Command that places a store of a given type.
+     *
+     * @param position the position of the store (ignored for autonomous type)
+     * @param tenges the initial amount of tenges in the store
+     * @param type the store type: "normal", "autonomous", "fighter"
+     * @return the command
+     */
+    public static SilkRoadCommand placeStore(int position, int tenges, String type) {
+        return new SilkRoadCommand(CommandLog.PLACE_TYPED_STORE, type, position, tenges);
+    }
+
+    /**
+     * Command that moves a robot.
+     *
+     * @param position the current position of the robot
+     * @param moveCount the number of positions to move
+     * @return the command
+     */
+    public static SilkRoadCommand moveRobot(int position, int moveCount) {
+        return new SilkRoadCommand(CommandLog.MOVE_ROBOT, null, position, moveCount);
+    }
+
+    /**
+     * Command that performs the optimal movements of all robots.
+     *
+     * @return the command
+     */
+    public static SilkRoadCommand moveRobots() {
+        return new SilkRoadCommand(CommandLog.MOVE_ROBOTS, null);
+    }
+
+    /**
+     * Command that removes a robot.
+     *
+     * @param position the position of the robot
+     * @return the command
+     */
+    public static SilkRoadCommand removeRobot(int position) {
+        return new SilkRoadCommand(CommandLog.REMOVE_ROBOT, null, position);
+    }
+
+    /**
+     * Command that removes a store.
+     *
+     * @param position the position of the store
+     * @return the command
+     */
+    public static SilkRoadCommand removeStore(int position) {
+        return new SilkRoadCommand(CommandLog.REMOVE_STORE, null, position);
+    }
+
+    /**
+     * Command that returns all robots to their initial positions.
+     *
+     * @return the command
+     */
+    public static SilkRoadCommand returnRobots() {
+        return new SilkRoadCommand(CommandLog.RETURN_ROBOTS, null);
+    }
+
+    /**
+     * Command that resupplies all stores.
+     *
+     * @return the command
+     */
+    public static SilkRoadCommand resupplyStores() {
+        return new SilkRoadCommand(CommandLog.RESUPPLY_STORES, null);
+    }
+
+    /**
+     * Command that reboots the simulator for a new day.
+     *
+     * @return the command
+     */
+    public static SilkRoadCommand reboot() {
+        return new SilkRoadCommand(CommandLog.REBOOT, null);
+    }
+
+    /**
+     * Calls the model method of this command.
+     *
+     * @param model the model to change
+     */
+    void applyTo(SilkRoadModel model) {
+        switch (code) {
+            case CommandLog.PLACE_ROBOT:
+                model.placeRobot(arguments[0]);
+                break;
+            case CommandLog.PLACE_TYPED_ROBOT:
+                model.placeRobot(arguments[0], type);
+                break;
+            case CommandLog.PLACE_STORE:
+                model.placeStore(arguments[0], arguments[1]);
+                break;
+            case CommandLog.PLACE_TYPED_STORE:
+                model.placeStore(arguments[0], arguments[1], type);
+                break;
+            case CommandLog.MOVE_ROBOT:
+                model.moveRobot(arguments[0], arguments[1]);
+                break;
+            case CommandLog.MOVE_ROBOTS:
+                model.moveRobots();
+                break;
+            case CommandLog.REMOVE_ROBOT:
+                model.removeRobot(arguments[0]);
+                break;
+            case CommandLog.REMOVE_STORE:
+                model.removeStore(arguments[0]);
+                break;
+            case CommandLog.RETURN_ROBOTS:
+                model.returnRobots();
+                break;
+            case CommandLog.RESUPPLY_STORES:
+                model.resupplyStores();
+                break;
+            case CommandLog.REBOOT:
+                model.reboot();
+                break;
+            default:
+                throw new IllegalStateException("Unknown command " + code);
+        }
+    }
+}
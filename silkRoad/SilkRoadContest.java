@@ -1,6 +1,9 @@
 package silkRoad;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * Clase que implementa la solución al problema de la Ruta de la Seda
@@ -11,10 +14,36 @@ public class SilkRoadContest {
     
     /**
      * Resuelve el problema de maximizar las ganancias.
+     * Usa el motor lineal, que aprovecha que la ruta es unidimensional.
      * @param days Array bidimensional con información de cada día
      * @return Array con las máximas ganancias posibles después de cada día
      */
     public static int[] solve(int[][] days) {
+        return solve(days, "line");
+    }
+    
+    /**
+     * Resuelve el problema de maximizar las ganancias con un motor específico.
+     * @param days Array bidimensional con información de cada día
+     * @param engineType Tipo de motor: "line" (por defecto), "bitmask" (DP exhaustiva de referencia),
+     *                   "incremental" (DP exhaustiva que conserva sus tablas entre días)
+     *                   "parallel" (DP exhaustiva repartida en un ForkJoinPool)
+     *                   "reduced" (DP exhaustiva sobre grupos independientes de tiendas)
+     *                   o "lean" (DP exhaustiva con memoria independiente del número de robots)
+     * @return Array con las máximas ganancias posibles después de cada día
+     */
+    public static int[] solve(int[][] days, String engineType) {
+        return solve(days, createEngine(engineType));
+    }
+    
+    /**
+     * Resuelve el problema de maximizar las ganancias con un motor ya creado,
+     * por ejemplo un ParallelEngine con un número de hilos propio.
+     * @param days Array bidimensional con información de cada día
+     * @param engine Motor vacío con el que resolver
+     * @return Array con las máximas ganancias posibles después de cada día
+     */
+    public static int[] solve(int[][] days, ContestEngine engine) {
         if (days == null || days.length == 0) {
             return new int[0];
         }
@@ -22,9 +51,6 @@ public class SilkRoadContest {
         int n = days[0][0]; // Número de días
         int[] result = new int[n]; // Array para almacenar las ganancias máximas por día
         
-        List<Integer> robots = new ArrayList<>();
-        List<int[]> stores = new ArrayList<>();
-        
         // Procesar cada día
         for (int day = 0; day < n; day++) {
             int dayIndex = day + 1;
@@ -37,24 +63,79 @@ public class SilkRoadContest {
                     int type = event[0];
                     
                     if (type == 1) { // Añadir robot
-                        int robotPos = event[1];
-                        robots.add(robotPos);
+                        engine.addRobot(event[1]);
                     } 
                     else if (type == 2 && event.length >= 3) { // Añadir tienda
-                        int storePos = event[1];
-                        int storeMoney = event[2];
-                        stores.add(new int[]{storePos, storeMoney});
+                        engine.addStore(event[1], event[2]);
                     }
                 }
             }
             
             // Calcular máxima ganancia para este día
-            result[day] = calculateMaxProfit(robots, stores);
+            result[day] = engine.maxProfit();
         }
         
         return result;
     }
     
+    /**
+     * Resuelve una entrada en formato de texto (número de días y luego una
+     * línea "1 x" o "2 x c" por día) leyéndola directamente del stream,
+     * sin construir la matriz de días.
+     * @param input Stream con la entrada del problema
+     * @param engineType Tipo de motor, como en solve(days, engineType)
+     * @return Array con las máximas ganancias posibles después de cada día
+     * @throws IOException Si la entrada no se puede leer o está incompleta
+     */
+    public static int[] solve(InputStream input, String engineType) throws IOException {
+        return new ContestReader(input).solve(createEngine(engineType));
+    }
+    
+    /**
+     * Resuelve muchas instancias en paralelo con el motor lineal, usando todos
+     * los núcleos del pool común.
+     * @param instances Días de cada instancia, en el formato de solve()
+     * @return Un resultado por instancia, en el orden de entrada, con su tiempo
+     */
+    public static List<ContestResult> solveAll(List<int[][]> instances) {
+        return new ContestBatch().solveAll(instances.iterator());
+    }
+    
+    /**
+     * Resuelve en paralelo las instancias de un stream, consumiéndolo a medida
+     * que hay hueco, sin cargarlo entero en memoria.
+     * @param instances Stream con los días de cada instancia
+     * @return Un resultado por instancia, en el orden de entrada, con su tiempo
+     */
+    public static List<ContestResult> solveAll(Stream<int[][]> instances) {
+        return new ContestBatch().solveAll(instances.iterator());
+    }
+    
+    /**
+     * Crea el motor de solución del tipo indicado.
+     * @param engineType Tipo de motor: "line", "bitmask", "incremental", "parallel", "reduced" o "lean"
+     * @return El motor correspondiente (lineal si el tipo no se reconoce)
+     */
+    public static ContestEngine createEngine(String engineType) {
+        String type = engineType == null ? "line" : engineType.toLowerCase();
+        
+        switch (type) {
+            case "bitmask":
+                return new BitmaskEngine();
+            case "incremental":
+                return new IncrementalEngine();
+            case "parallel":
+                return new ParallelEngine();
+            case "reduced":
+                return new ReducedEngine();
+            case "lean":
+                return new LeanEngine();
+            case "line":
+            default:
+                return new LineEngine();
+        }
+    }
+    
     /**
      * Simula la solución paso a paso.
      * @param days Array bidimensional con información de cada día
@@ -145,165 +226,19 @@ public class SilkRoadContest {
     }
     
     /**
-     * Calcula la máxima ganancia posible con los robots y tiendas disponibles.
-     * @param robots Lista de posiciones de robots
-     * @param stores Lista de tiendas (posición, tenges)
-     * @return La ganancia máxima posible
-     */
-    static int calculateMaxProfit(List<Integer> robots, List<int[]> stores) {
-        if (robots.isEmpty() || stores.isEmpty()) {
-            return 0;
-        }
-
-        int numStores = stores.size();
-        int numRobots = robots.size();
-
-        // Precalcular: mejor ganancia para cada robot visitando cada subconjunto de tiendas
-        List<int[]> robotProfits = new ArrayList<>();
-        for (int robotPos : robots) {
-            int[] profits = new int[1 << numStores];
-            for (int mask = 1; mask < (1 << numStores); mask++) {
-                List<Integer> storeIndices = new ArrayList<>();
-                for (int i = 0; i < numStores; i++) {
-                    if ((mask & (1 << i)) != 0) {
-                        storeIndices.add(i);
-                    }
-                }
-                profits[mask] = bestRoute(robotPos, stores, storeIndices);
-            }
-            robotProfits.add(profits);
-        }
-
-        // dp[mask][k] = mejor ganancia particionando tiendas en mask usando exactamente k robots
-        int INF = Integer.MIN_VALUE / 2;
-        int[][] dp = new int[1 << numStores][numRobots + 1];
-        
-        // Inicializar con infinito negativo
-        for (int[] row : dp) {
-            Arrays.fill(row, INF);
-        }
-        dp[0][0] = 0; // 0 tiendas, 0 robots = ganancia 0
-
-        for (int mask = 0; mask < (1 << numStores); mask++) {
-            for (int k = 0; k <= numRobots; k++) {
-                if (dp[mask][k] == INF) {
-                    continue;
-                }
-
-                // Asignar un subconjunto de tiendas no visitadas a un nuevo robot
-                int unvisited = ((1 << numStores) - 1) ^ mask;
-                if (unvisited == 0 || k >= numRobots) {
-                    continue;
-                }
-
-                int submask = unvisited;
-                while (submask > 0) {
-                    // Robot k+1 visitará tiendas en submask
-                    int bestProfitForSubmask = Integer.MIN_VALUE;
-                    for (int r = 0; r < numRobots; r++) {
-                        bestProfitForSubmask = Math.max(bestProfitForSubmask, robotProfits.get(r)[submask]);
-                    }
-
-                    int newMask = mask | submask;
-                    int newK = k + 1;
-                    dp[newMask][newK] = Math.max(dp[newMask][newK], dp[mask][k] + bestProfitForSubmask);
-
-                    submask = (submask - 1) & unvisited;
-                }
-            }
-        }
-
-        // Encontrar el máximo entre todos los posibles estados
-        int result = 0;
-        for (int mask = 0; mask < (1 << numStores); mask++) {
-            for (int k = 0; k <= numRobots; k++) {
-                if (dp[mask][k] > INF) {
-                    result = Math.max(result, dp[mask][k]);
-                }
-            }
-        }
-
-        return Math.max(0, result);
-    }
-
-    /**
-     * Calcula la mejor ruta para un robot visitando un conjunto de tiendas.
+     * Calcula en O(1) la ganancia de un robot que visita todas las tiendas entre
+     * dos posiciones. En una línea el mejor recorrido cubre el tramo entre la
+     * tienda más a la izquierda y la más a la derecha, empezando por el extremo
+     * más cercano al robot.
      * @param startPos Posición inicial del robot
-     * @param stores Lista de todas las tiendas
-     * @param indices Índices de tiendas a visitar
-     * @return La ganancia máxima para esta ruta
+     * @param leftPos Posición de la tienda más a la izquierda
+     * @param rightPos Posición de la tienda más a la derecha
+     * @param tenges Tenges totales de las tiendas visitadas
+     * @return La ganancia del recorrido (puede ser negativa)
      */
-    static int bestRoute(int startPos, List<int[]> stores, List<Integer> indices) {
-        int n = indices.size();
-
-        if (n == 0) {
-            return 0;
-        }
-
-        if (n == 1) {
-            int idx = indices.get(0);
-            int pos = stores.get(idx)[0];
-            int money = stores.get(idx)[1];
-            int profit = money - Math.abs(startPos - pos);
-            return Math.max(0, profit);
-        }
-
-        int INF = Integer.MIN_VALUE / 2;
-        int[][] dp = new int[1 << n][n];
-        
-        // Inicializar con infinito negativo
-        for (int[] row : dp) {
-            Arrays.fill(row, INF);
-        }
-
-        // Estados iniciales: visitar solo una tienda desde la posición inicial
-        for (int i = 0; i < n; i++) {
-            int idx = indices.get(i);
-            int pos = stores.get(idx)[0];
-            int money = stores.get(idx)[1];
-            int distance = Math.abs(startPos - pos);
-            dp[1 << i][i] = money - distance;
-        }
-
-        // Iterar sobre todos los posibles subconjuntos y últimas tiendas visitadas
-        for (int mask = 1; mask < (1 << n); mask++) {
-            for (int last = 0; last < n; last++) {
-                if ((mask & (1 << last)) == 0 || dp[mask][last] == INF) {
-                    continue;
-                }
-
-                int lastIdx = indices.get(last);
-                int lastPos = stores.get(lastIdx)[0];
-
-                // Intentar añadir una tienda más al recorrido
-                for (int nextI = 0; nextI < n; nextI++) {
-                    if ((mask & (1 << nextI)) != 0) {
-                        continue;
-                    }
-
-                    int nextIdx = indices.get(nextI);
-                    int nextPos = stores.get(nextIdx)[0];
-                    int nextMoney = stores.get(nextIdx)[1];
-
-                    int distance = Math.abs(lastPos - nextPos);
-                    int newProfit = dp[mask][last] + nextMoney - distance;
-
-                    int newMask = mask | (1 << nextI);
-                    dp[newMask][nextI] = Math.max(dp[newMask][nextI], newProfit);
-                }
-            }
-        }
-
-        // Encontrar la máxima ganancia entre todos los posibles recorridos
-        int maxProfit = 0;
-        for (int mask = 1; mask < (1 << n); mask++) {
-            for (int last = 0; last < n; last++) {
-                if (dp[mask][last] > INF) {
-                    maxProfit = Math.max(maxProfit, dp[mask][last]);
-                }
-            }
-        }
-
-        return Math.max(0, maxProfit);
+    static int routeProfit(int startPos, int leftPos, int rightPos, int tenges) {
+        int span = rightPos - leftPos;
+        int approach = Math.min(Math.abs(startPos - leftPos), Math.abs(startPos - rightPos));
+        return tenges - span - approach;
     }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package silkRoad;
+
+/**
+ * Observer of a SilkRoadModel.
+ * The model calls these methods after each change it makes, so a view can
+ * mirror the simulation without knowing its rules.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public interface SilkRoadListener {
+
+    /**
+     * Called after a robot is placed on the route.
+     *
+     * @param robot the new robot
+     */
+    void robotPlaced(Robot robot);
+
+    /**
+     * Called after a robot changes its position.
+     *
+     * @param robot the robot that moved
+     */
+    void robotMoved(Robot robot);
+
+    /**
+     * Called after a robot is removed from the route.
+     *
+     * @param robot the removed robot
+     */
+    void robotRemoved(Robot robot);
+
+    /**
+     * Called after a store is placed on the route.
+     *
+     * @param store the new store
+     */
+    void storePlaced(Store store);
+
+    /**
+     * Called after a store is removed from the route.
+     *
+     * @param store the removed store
+     */
+    void storeRemoved(Store store);
+
+    /**
+     * Called when the robot with the highest profit changes.
+     *
+     * @param previous the previous leader, or null
+     * @param leader the new leader, or null
+     */
+    void leaderChanged(Robot previous, Robot leader);
+
+    /**
+     * Called after an action that may change the profit or the maximum
+     * possible profit.
+     */
+    void profitChanged();
+}
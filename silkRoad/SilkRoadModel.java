@@ -0,0 +1,2218 @@
+package silkRoad;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Headless core of the Silk Road simulator.
+ * Holds every rule of the simulation: placing and removing robots and
+ * stores, moving robots and collecting tenges, profit, the leader robot,
+ * optimal movements and undo. It never touches the canvas, so simulations
+ * can run without loading AWT; views follow it through SilkRoadListener.
+ * Every command can be recorded to a CommandLog and replayed later with
+ * SilkRoadReplayer. Several commands can be grouped in a batch that is
+ * committed or rolled back as a whole.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class SilkRoadModel {
+    // Returned by collect when the robot takes nothing; a profit can be negative
+    private static final int NOTHING_COLLECTED = Integer.MIN_VALUE;
+
+    private int length; // Length of the route in meters
+    private ArrayList<Robot> robots; // List of robots on the route
+    private ArrayList<Store> stores; // List of stores on the route
+    private Robot[] robotAt; // First robot of the list at each position (index -> robot)
+    private IdentityHashMap<Robot, Slot> slots; // Order and next robot at the same position
+    private long robotsEnlisted; // Robots ever added to the list, to order them
+    private Store[] storeAt; // Store at each position (index -> store)
+    private TreeMap<Integer, Store> storeIndex; // Stores ordered by position, for sweeps
+    private boolean sweepCollection; // Whether robots collect from every store they cross
+    private int profitHistoryLimit; // Movements kept in each robot's profit history, 0 for all
+    private ProfitBound profitBound; // Maximum possible profit, kept up to date
+    private int profit; // Profit accumulator
+    private boolean lastActionSuccessful = true; // Indicates if the last action was successful
+    private String lastActionMessage = "No action has been performed yet"; // Last action message
+    private Robot highestProfitRobot; // Robot with highest profit
+    private Leaderboard leaderboard; // Robots ranked by total profit
+    private List<SilkRoadListener> listeners;
+
+    private MoveJournal journal; // Movements that can be undone and redone
+    private CommandLog commandLog; // Where commands are recorded, or null
+    private int logSuspended; // Nesting of commands run by other commands
+    private Batch batch; // Open batch, or null
+    private boolean loading; // Inside loadDays, where no snapshot is taken
+
+    /**
+     * Constructor for SilkRoadModel objects.
+     *
+     * @param length the length of the route in meters
+     */
+    public SilkRoadModel(int length) {
+        this.length = length;
+        this.robots = new ArrayList<>();
+        this.stores = new ArrayList<>();
+        this.robotAt = new Robot[length];
+        this.slots = new IdentityHashMap<>();
+        this.storeAt = new Store[length];
+        this.storeIndex = new TreeMap<>();
+        this.profitBound = new ProfitBound(length);
+        this.leaderboard = new Leaderboard();
+        this.profit = 0;
+        this.listeners = new ArrayList<>();
+        this.journal = new MoveJournal();
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Simulator successfully created with a route of " + length + " meters";
+    }
+
+    /**
+     * Constructor for SilkRoadModel objects using a 2D array of days/actions,
+     * on a route of 100 meters.
+     *
+     * @param days 2D array containing actions to perform:
+     *             [[numDays], [action, position], [action, position, tenges], ...]
+     */
+    public SilkRoadModel(int[][] days) {
+        this(100);
+        loadDays(days);
+    }
+
+    /**
+     * Performs the actions of a 2D array of days.
+     * Action codes: 1 = add robot, 2 = add store.
+     * Actions that placeRobot or placeStore would reject (invalid position,
+     * position already taken, negative tenges) are skipped, the first
+     * placement at a position winning. All positions are validated in one
+     * pass, the robots and stores are created in a second one, and the
+     * profit bound, the leader and the listeners are updated once at the end.
+     *
+     * @param days 2D array containing actions to perform:
+     *             [[numDays], [action, position], [action, position, tenges], ...]
+     */
+    public void loadDays(int[][] days) {
+        if (days == null || days.length == 0) {
+            return;
+        }
+
+        // Extract the number of days/actions
+        int numDays = days[0][0];
+        int rows = Math.max(0, Math.min(days.length - 1, numDays));
+
+        // Validate every placement at once
+        BitSet newRobots = new BitSet(length);
+        BitSet newStores = new BitSet(length);
+        BitSet accepted = new BitSet(rows + 1);
+        int robotCount = 0;
+        for (int i = 1; i <= rows; i++) {
+            if (days[i].length < 2) {
+                continue;
+            }
+
+            int action = days[i][0];
+            int position = days[i][1];
+            if (position < 0 || position >= length) {
+                continue;
+            }
+
+            if (action == 1) { // Add robot
+                if (robotAt[position] == null && !newRobots.get(position)) {
+                    newRobots.set(position);
+                    accepted.set(i);
+                    robotCount++;
+                }
+            }
+            else if (action == 2 && days[i].length >= 3) { // Add store
+                if (storeAt[position] == null && !newStores.get(position) && days[i][2] >= 0) {
+                    newStores.set(position);
+                    accepted.set(i);
+                }
+            }
+        }
+
+        // Create the entities in a single sweep, recorded as the placements
+        // they stand for; no snapshot is taken until the load is complete
+        int[] robotPositions = new int[robotCount];
+        List<Robot> placedRobots = new ArrayList<>(robotCount);
+        List<Store> placedStores = new ArrayList<>(accepted.cardinality() - robotCount);
+        loading = true;
+        try {
+            for (int i = accepted.nextSetBit(0); i >= 0; i = accepted.nextSetBit(i + 1)) {
+                int position = days[i][1];
+                if (days[i][0] == 1) {
+                    logCommand(CommandLog.PLACE_ROBOT, position);
+                    Robot robot = new NormalRobot(position);
+                    robot.setProfitHistoryLimit(profitHistoryLimit);
+                    robotPositions[placedRobots.size()] = position;
+                    placedRobots.add(robot);
+                    enlist(robot);
+                    leaderboard.add(robot);
+                } else {
+                    logCommand(CommandLog.PLACE_STORE, position, days[i][2]);
+                    Store store = new NormalStore(position, days[i][2]);
+                    placedStores.add(store);
+                    saveLayout();
+                    stores.add(store);
+                    storeAt[position] = store;
+                    storeIndex.put(position, store);
+                }
+            }
+        } finally {
+            loading = false;
+        }
+
+        // Derived state, once
+        profitBound.addAll(robotPositions, robotCount, placedStores);
+
+        for (int l = 0; l < listeners.size() && batch == null; l++) {
+            SilkRoadListener listener = listeners.get(l);
+            for (Robot robot : placedRobots) {
+                listener.robotPlaced(robot);
+            }
+            for (Store store : placedStores) {
+                listener.storePlaced(store);
+            }
+        }
+        fireProfitChanged();
+        updateHighestProfitRobot();
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Simulator created from array with " + numDays + " actions";
+    }
+
+    /**
+     * Starts recording every command to a CommandLog in the given directory,
+     * replacing any log already there. The current state is saved as the
+     * first snapshot.
+     *
+     * @param directory the log directory
+     * @param snapshotInterval number of commands between snapshots
+     * @throws IOException if the log cannot be created
+     */
+    public void startRecording(File directory, int snapshotInterval) throws IOException {
+        if (batch != null) {
+            throw new IllegalStateException("Cannot start recording inside a batch");
+        }
+        stopRecording();
+
+        CommandLog log = new CommandLog(directory, snapshotInterval);
+        log.writeSnapshot(this);
+        commandLog = log;
+    }
+
+    /**
+     * Stops recording and closes the log, if one is open.
+     *
+     * @throws IOException if the pending commands cannot be written
+     */
+    public void stopRecording() throws IOException {
+        if (commandLog != null) {
+            CommandLog log = commandLog;
+            commandLog = null;
+            log.close();
+        }
+    }
+
+    /**
+     * Returns the number of commands recorded since recording started.
+     *
+     * @return the number of recorded commands, or 0 if not recording
+     */
+    public long getRecordedCommands() {
+        return commandLog == null ? 0 : commandLog.getCommandCount();
+    }
+
+    /**
+     * Records a command if recording, taking a snapshot first when due.
+     * Commands run by other commands are not recorded, and no snapshot is
+     * taken inside a batch, since it could not be rolled back from there,
+     * nor in the middle of loadDays.
+     *
+     * @param command the command code
+     * @param arguments the int arguments of the command
+     */
+    private void logCommand(byte command, int... arguments) {
+        if (commandLog == null || logSuspended > 0) {
+            return;
+        }
+
+        try {
+            if (batch == null && !loading && commandLog.isSnapshotDue()) {
+                commandLog.writeSnapshot(this);
+            }
+            commandLog.record(command, arguments);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Registers a listener that will be told about every change.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(SilkRoadListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(SilkRoadListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Records the result of an action performed by a view.
+     *
+     * @param successful whether the action succeeded
+     * @param message description of the result
+     */
+    void setLastAction(boolean successful, String message) {
+        lastActionSuccessful = successful;
+        lastActionMessage = message;
+    }
+
+    /**
+     * Returns the message describing the last action.
+     *
+     * @return the last action message
+     */
+    public String getLastActionMessage() {
+        return lastActionMessage;
+    }
+
+    /**
+     * Checks if the last action was performed successfully.
+     *
+     * @return true if the last action succeeded, false otherwise
+     */
+    public boolean ok() {
+        return lastActionSuccessful;
+    }
+
+    /**
+     * Returns the robots on the route, in placement order.
+     *
+     * @return read-only list of robots
+     */
+    public List<Robot> getRobots() {
+        return Collections.unmodifiableList(robots);
+    }
+
+    /**
+     * Returns the stores on the route, in placement order.
+     *
+     * @return read-only list of stores
+     */
+    public List<Store> getStores() {
+        return Collections.unmodifiableList(stores);
+    }
+
+    /**
+     * Returns the robot with the highest profit.
+     *
+     * @return the leader robot, or null if there is none
+     */
+    public Robot getHighestProfitRobot() {
+        return highestProfitRobot;
+    }
+
+    /**
+     * Finds the robot at a position in O(1). When several robots share the
+     * position, returns the first one in the robots list, as a scan would.
+     *
+     * @param position the position to look up
+     * @return the robot at that position, or null if there is none
+     */
+    public Robot findRobotAt(int position) {
+        if (position < 0 || position >= length) {
+            return null;
+        }
+        return robotAt[position];
+    }
+
+    /**
+     * Finds the store at a position in O(1).
+     *
+     * @param position the position to look up
+     * @return the store at that position, or null if there is none
+     */
+    public Store findStoreAt(int position) {
+        if (position < 0 || position >= length) {
+            return null;
+        }
+        return storeAt[position];
+    }
+
+    /**
+     * Appends a robot to the robots list and registers it at its position.
+     *
+     * @param robot the robot to add
+     */
+    private void enlist(Robot robot) {
+        saveLayout();
+        robots.add(robot);
+        slots.put(robot, new Slot(robotsEnlisted++));
+        occupy(robot);
+    }
+
+    /**
+     * Removes a robot from the robots list and from its position.
+     *
+     * @param robot the robot to remove
+     */
+    private void delist(Robot robot) {
+        saveLayout();
+        robots.remove(robot);
+        vacate(robot, robot.getPosition());
+        slots.remove(robot);
+    }
+
+    /**
+     * Registers a robot at its current position. The robots at a position
+     * are chained in list order, so the first one is found in O(1); joining
+     * a position walks the robots already stacked there.
+     *
+     * @param robot the robot to register
+     */
+    private void occupy(Robot robot) {
+        int position = robot.getPosition();
+        Slot slot = slots.get(robot);
+        Robot previous = null;
+        Robot next = robotAt[position];
+        while (next != null && slots.get(next).order < slot.order) {
+            previous = next;
+            next = slots.get(next).next;
+        }
+
+        slot.next = next;
+        if (previous == null) {
+            robotAt[position] = robot;
+        } else {
+            slots.get(previous).next = robot;
+        }
+    }
+
+    /**
+     * Unregisters a robot from a position.
+     *
+     * @param robot the robot to unregister
+     * @param position the position it occupied
+     */
+    private void vacate(Robot robot, int position) {
+        Slot slot = slots.get(robot);
+        if (robotAt[position] == robot) {
+            robotAt[position] = slot.next;
+        } else {
+            Robot previous = robotAt[position];
+            while (slots.get(previous).next != robot) {
+                previous = slots.get(previous).next;
+            }
+            slots.get(previous).next = slot.next;
+        }
+        slot.next = null;
+    }
+
+    /**
+     * Changes the position of a robot, keeping the occupancy tables in sync.
+     *
+     * @param robot the robot to move
+     * @param newPosition its new position
+     */
+    private void relocateRobot(Robot robot, int newPosition) {
+        saveRobot(robot);
+        vacate(robot, robot.getPosition());
+        robot.updatePosition(newPosition);
+        occupy(robot);
+        fireRobotMoved(robot);
+    }
+
+    /**
+     * Tells the listeners that a robot moved, or notes it for the commit
+     * of the open batch.
+     *
+     * @param robot the robot that moved
+     */
+    private void fireRobotMoved(Robot robot) {
+        if (batch != null) {
+            if (batch.movedRobots.add(robot)) {
+                batch.movedInOrder.add(robot);
+            }
+            return;
+        }
+        for (SilkRoadListener listener : listeners) {
+            listener.robotMoved(robot);
+        }
+    }
+
+    /**
+     * Saves the robots and stores lists for the open batch, before the
+     * first placement or removal in it.
+     */
+    private void saveLayout() {
+        if (batch != null && batch.robots == null) {
+            batch.robots = new ArrayList<>(robots);
+            batch.stores = new ArrayList<>(stores);
+        }
+    }
+
+    /**
+     * Saves a robot for the open batch, before the first change to it.
+     *
+     * @param robot the robot about to change
+     */
+    private void saveRobot(Robot robot) {
+        if (batch != null && !batch.savedRobots.containsKey(robot)) {
+            batch.savedRobots.put(robot, new SavedRobot(robot));
+        }
+    }
+
+    /**
+     * Saves a store for the open batch, before the first change to it.
+     *
+     * @param store the store about to change
+     */
+    private void saveStore(Store store) {
+        if (batch != null && !batch.savedStores.containsKey(store)) {
+            batch.savedStores.put(store, new int[] {store.getTenges(), store.getEmptyCount()});
+        }
+    }
+
+    /**
+     * Tells the listeners that the profit may have changed. Inside a batch
+     * they are told once, at the commit.
+     */
+    private void fireProfitChanged() {
+        if (batch != null) {
+            return;
+        }
+        for (SilkRoadListener listener : listeners) {
+            listener.profitChanged();
+        }
+    }
+
+    /**
+     * Updates the robot with the highest profit and tells the listeners
+     * when it changes. Among robots with the same profit, the one placed
+     * first keeps the lead.
+     */
+    private void updateHighestProfitRobot() {
+        if (robots.isEmpty()) {
+            return;
+        }
+
+        Robot previousHighestRobot = highestProfitRobot;
+        Robot leader = leaderboard.peek();
+
+        if (previousHighestRobot != leader) {
+            setLeader(previousHighestRobot, leader);
+        }
+    }
+
+    /**
+     * Returns the robots with the highest total profit, best first.
+     * Among robots with the same profit, the one placed first comes first.
+     *
+     * @param k the number of robots wanted
+     * @return up to k robots, sorted by profit from highest to lowest
+     */
+    public List<Robot> getTopRobots(int k) {
+        return leaderboard.top(k);
+    }
+
+    /**
+     * Tells the listeners about a new leader. Inside a batch only the
+     * leader before the batch and the one at the commit are reported.
+     */
+    private void setLeader(Robot previous, Robot leader) {
+        highestProfitRobot = leader;
+        if (batch != null) {
+            return;
+        }
+        for (SilkRoadListener listener : listeners) {
+            listener.leaderChanged(previous, leader);
+        }
+    }
+
+    /**
+     * Calculates the maximum possible profit with all existing stores.
+     * Includes empty stores using their initial tenges values.
+     * Each store counts with the robot that can achieve the maximum benefit,
+     * which the ProfitBound keeps up to date as robots and stores change.
+     *
+     * @return the maximum possible profit in tenges
+     */
+    public int calculateMaximumPossibleProfit() {
+        return profitBound.getTotal();
+    }
+
+    /**
+     * Places a robot on the route at the specified position.
+     * Creates a normal robot by default.
+     *
+     * @param position the initial position of the robot (0 to length-1)
+     */
+    public void placeRobot(int position) {
+        logCommand(CommandLog.PLACE_ROBOT, position);
+
+        if (position < 0 || position >= length) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: Invalid position. Must be between 0 and " + (length-1);
+            return;
+        }
+
+        // Check if there's already a robot at that position
+        if (findRobotAt(position) != null) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: There is already a robot at position " + position;
+            return;
+        }
+
+        // Create a normal robot with automatic color
+        Robot robot = new NormalRobot(position);
+        addRobot(robot);
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Normal robot with color " + robot.getColor() +
+                           " successfully placed at position " + position;
+    }
+
+    /**
+     * Places a robot on the route with a specific type.
+     * Uses polymorphism to create the appropriate robot subclass.
+     *
+     * @param position the initial position of the robot
+     * @param type the robot type: "normal", "neverback", "tender", "lazy"
+     */
+    public void placeRobot(int position, String type) {
+        logCommand(CommandLog.PLACE_TYPED_ROBOT, position, CommandLog.robotTypeCode(type));
+
+        if (position < 0 || position >= length) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: Invalid position. Must be between 0 and " + (length-1);
+            return;
+        }
+
+        // Check if there's already a robot at that position
+        if (findRobotAt(position) != null) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: There is already a robot at position " + position;
+            return;
+        }
+
+        Robot robot = createRobot(position, type);
+        addRobot(robot);
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Robot of type " + robot.getType() +
+                           " successfully placed at position " + position;
+    }
+
+    /**
+     * Creates the robot subclass of a type using polymorphism.
+     *
+     * @param position the initial position of the robot
+     * @param type the robot type: "normal", "neverback", "tender", "lazy"
+     * @return the new robot
+     */
+    private static Robot createRobot(int position, String type) {
+        switch (type.toLowerCase()) {
+            case "neverback":
+                return new NeverbackRobot(position);
+            case "tender":
+                return new TenderRobot(position);
+            case "lazy":
+                return new LazyRobot(position);
+            case "normal":
+            default:
+                return new NormalRobot(position);
+        }
+    }
+
+    /**
+     * Adds a validated robot to the route.
+     *
+     * @param robot the robot to add
+     */
+    private void addRobot(Robot robot) {
+        robot.setProfitHistoryLimit(profitHistoryLimit);
+        enlist(robot);
+        profitBound.addRobot(robot.getInitialPosition());
+        leaderboard.add(robot);
+
+        if (batch == null) {
+            for (SilkRoadListener listener : listeners) {
+                listener.robotPlaced(robot);
+            }
+        }
+
+        fireProfitChanged();
+        updateHighestProfitRobot();
+    }
+
+    /**
+     * Moves a robot along the route.
+     * Uses polymorphism to handle different robot and store behaviors.
+     *
+     * @param posToMove the current position of the robot to move
+     * @param moveCount the number of positions to move (positive = forward, negative = backward)
+     */
+    public void moveRobot(int posToMove, int moveCount) {
+        logCommand(CommandLog.MOVE_ROBOT, posToMove, moveCount);
+
+        if (robots.isEmpty()) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: No robots to move";
+            return;
+        }
+
+        // Search for robot at the indicated position
+        Robot robotToMove = findRobotAt(posToMove);
+
+        if (robotToMove == null) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: No robot at position " + posToMove;
+            return;
+        }
+
+        // POLYMORPHISM: Check if the robot can make this move
+        if (!robotToMove.canMove(moveCount)) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: " + robotToMove.getType() +
+                               " type robots cannot move backwards";
+            return;
+        }
+
+        if (sweepCollection) {
+            sweepRobot(robotToMove, moveCount);
+            return;
+        }
+
+        // Move the robot
+        int currentPos = robotToMove.getPosition();
+        int newPos = (currentPos + moveCount) % length;
+        if (newPos < 0) newPos += length;
+
+        relocateRobot(robotToMove, newPos);
+
+        // Check if there is a store at the new position
+        Store store = storeAt[newPos];
+        if (store == null) {
+            journal.record(robotToMove, currentPos, newPos, null, 0, 0, 0);
+            lastActionSuccessful = true;
+            lastActionMessage = "Robot " + robotToMove.getColor() +
+                             " successfully moved from position " +
+                             currentPos + " to position " + newPos;
+            return;
+        }
+
+        int storeTenges = store.getTenges();
+
+        // POLYMORPHISM: Check if robot takes any tenges (lazy robots don't)
+        int tengesToTake = robotToMove.getTengesToTake(storeTenges);
+
+        // Special case: Lazy robot
+        if (robotToMove.getTypeCode() == Robot.LAZY) {
+            lastActionSuccessful = true;
+            lastActionMessage = "Lazy robot " + robotToMove.getColor() +
+                             " moved to position " + newPos +
+                             " and passed through a " + store.getType() +
+                             " store but was too lazy to collect tenges";
+
+            journal.record(robotToMove, currentPos, newPos, null, 0, 0, 0);
+            return;
+        }
+
+        // POLYMORPHISM: Check if robot can take tenges from this store
+        if (!store.canRobotTakeTenges(robotToMove)) {
+            lastActionSuccessful = true;
+            lastActionMessage = "Robot " + robotToMove.getColor() +
+                             " (type " + robotToMove.getType() +
+                             ") moved to position " + newPos +
+                             " but could not take tenges from " + store.getType() +
+                             " store (insufficient profit)";
+
+            journal.record(robotToMove, currentPos, newPos, null, 0, 0, 0);
+        }
+        else if (storeTenges > 0 && tengesToTake > 0) {
+            int profitCalculated = collect(robotToMove, store, currentPos, false);
+
+            lastActionSuccessful = true;
+            lastActionMessage = "Robot " + robotToMove.getColor() +
+                             " (type " + robotToMove.getType() +
+                             ") moved to position " + newPos +
+                             " and took " + tengesToTake + " tenges from " +
+                             store.getType() + " store. Profit: " +
+                             profitCalculated + " tenges";
+        } else {
+            lastActionSuccessful = true;
+            lastActionMessage = "Robot " + robotToMove.getColor() +
+                             " moved to position " + newPos +
+                             " and passed through a " + store.getType() +
+                             " store, but it was empty";
+
+            journal.record(robotToMove, currentPos, newPos, null, 0, 0, 0);
+        }
+
+        fireProfitChanged();
+        updateHighestProfitRobot();
+    }
+
+    /**
+     * Makes a robot take tenges from the store it is at, when the rules of
+     * both allow it, and journals the step that brought it there.
+     *
+     * @param robot the robot
+     * @param store the store at the robot's position
+     * @param from the position the step started from
+     * @param continuation true if the step continues a journaled movement
+     * @return the profit collected, or NOTHING_COLLECTED if the robot took nothing
+     */
+    private int collect(Robot robot, Store store, int from, boolean continuation) {
+        int position = store.getPosition();
+        int storeTenges = store.getTenges();
+
+        // POLYMORPHISM: Check if robot takes any tenges (lazy robots don't)
+        int tengesToTake = robot.getTengesToTake(storeTenges);
+        if (robot.getTypeCode() == Robot.LAZY || !store.canRobotTakeTenges(robot) ||
+            storeTenges <= 0 || tengesToTake <= 0) {
+            return NOTHING_COLLECTED;
+        }
+
+        // POLYMORPHISM: Calculate profit using robot's method
+        int distanceTraveled = calculateDistance(robot.getInitialPosition(), position);
+        int profitCalculated = robot.calculateProfit(storeTenges, distanceTraveled);
+
+        // Update store tenges and add to total game profit
+        saveRobot(robot);
+        saveStore(store);
+        store.setTenges(storeTenges - tengesToTake);
+        profit += profitCalculated;
+
+        // Register the profit in the robot
+        robot.addProfit(profitCalculated, position);
+        leaderboard.update(robot);
+
+        journal.record(robot, from, position, store, storeTenges,
+                       storeTenges - tengesToTake, profitCalculated, continuation);
+        return profitCalculated;
+    }
+
+    /**
+     * Moves a robot collecting from every store it crosses on the way,
+     * including the one it lands on and, on moves longer than the route,
+     * the stores of every lap. The stores are visited in order through the
+     * store index, so a move costs O(log S) plus the stores crossed. Once a
+     * whole lap collects nothing, the following laps would not either and
+     * are skipped. The steps are journaled as one movement.
+     *
+     * @param robot the robot to move, already checked with canMove
+     * @param moveCount the number of positions to move
+     */
+    private void sweepRobot(Robot robot, int moveCount) {
+        int start = robot.getPosition();
+        int newPos = Math.floorMod(start + moveCount, length);
+        boolean forward = moveCount > 0;
+        long distance = Math.abs((long) moveCount);
+
+        long travelled = 0;
+        long lastCollection = 0; // Distance travelled at the last collection
+        int at = start;
+        int from = start; // End of the last journaled step
+        int collections = 0;
+        int collected = 0;
+
+        while (!storeIndex.isEmpty() && travelled - lastCollection < length) {
+            Integer next = forward ? storeIndex.higherKey(at) : storeIndex.lowerKey(at);
+            if (next == null) {
+                next = forward ? storeIndex.firstKey() : storeIndex.lastKey();
+            }
+            int step = forward ? Math.floorMod(next - at, length) : Math.floorMod(at - next, length);
+            if (step == 0) {
+                step = length; // The only store is where the robot is, a lap away
+            }
+            if (travelled + step > distance) {
+                break;
+            }
+
+            travelled += step;
+            at = next;
+            int gained = collect(robot, storeIndex.get(next), from, collections > 0);
+            if (gained != NOTHING_COLLECTED) {
+                collections++;
+                collected += gained;
+                lastCollection = travelled;
+                from = next;
+            }
+        }
+
+        if (collections == 0 || from != newPos) {
+            journal.record(robot, from, newPos, null, 0, 0, 0, collections > 0);
+        }
+        relocateRobot(robot, newPos);
+
+        fireProfitChanged();
+        updateHighestProfitRobot();
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Robot " + robot.getColor() +
+                         " (type " + robot.getType() +
+                         ") swept from position " + start + " to position " + newPos +
+                         " and collected from " + collections + " stores. Profit: " +
+                         collected + " tenges";
+    }
+
+    /**
+     * Chooses whether moveRobot collects only from the store a robot lands
+     * on (the default) or from every store it crosses.
+     *
+     * @param enabled true to collect from every store crossed
+     */
+    public void setSweepCollection(boolean enabled) {
+        logCommand(CommandLog.SWEEP_COLLECTION, enabled ? 1 : 0);
+
+        sweepCollection = enabled;
+        lastActionSuccessful = true;
+        lastActionMessage = enabled ? "Robots now collect from every store they cross"
+                                    : "Robots now collect only where they land";
+    }
+
+    /**
+     * Checks if robots collect from every store they cross.
+     *
+     * @return true if sweep collection is enabled
+     */
+    public boolean isSweepCollection() {
+        return sweepCollection;
+    }
+
+    /**
+     * Limits the profit history of every robot, present and future, to its
+     * newest movements, so long runs use bounded memory. Total profits
+     * still count every movement.
+     *
+     * @param limit the number of movements kept per robot, or 0 to keep all
+     */
+    public void setProfitHistoryLimit(int limit) {
+        logCommand(CommandLog.PROFIT_HISTORY_LIMIT, limit);
+
+        if (limit < 0) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: The profit history limit cannot be negative";
+            return;
+        }
+
+        profitHistoryLimit = limit;
+        for (Robot robot : robots) {
+            saveRobot(robot);
+            robot.setProfitHistoryLimit(limit);
+        }
+
+        lastActionSuccessful = true;
+        lastActionMessage = limit == 0 ? "Robots now keep the profit of every movement"
+                                       : "Robots now keep the profit of their last " + limit + " movements";
+    }
+
+    /**
+     * Removes a robot from the route at the specified position.
+     * If the removed robot was the highest profit robot, updates the leader.
+     *
+     * @param position the position of the robot to remove
+     */
+    public void removeRobot(int position) {
+        logCommand(CommandLog.REMOVE_ROBOT, position);
+
+        if (robots.isEmpty()) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: No robots to remove";
+            return;
+        }
+
+        // Search for robot at the indicated position
+        Robot robotToRemove = findRobotAt(position);
+
+        if (robotToRemove == null) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: No robot at position " + position;
+            return;
+        }
+
+        // Remove the robot
+        delist(robotToRemove);
+        profitBound.removeRobot(robotToRemove.getInitialPosition());
+        leaderboard.remove(robotToRemove);
+        journal.forget(robotToRemove);
+        if (batch == null) {
+            for (SilkRoadListener listener : listeners) {
+                listener.robotRemoved(robotToRemove);
+            }
+        }
+
+        // If it was the leader, search for a new one among the remaining robots
+        if (robotToRemove == highestProfitRobot) {
+            setLeader(robotToRemove, null);
+            updateHighestProfitRobot();
+        }
+
+        fireProfitChanged();
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Robot " + robotToRemove.getColor() + " correctly removed from position " + position;
+    }
+
+    /**
+     * Returns all robots to their initial positions.
+     * Does not reset their profit or other statistics.
+     */
+    public void returnRobots() {
+        logCommand(CommandLog.RETURN_ROBOTS);
+
+        if (robots.isEmpty()) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: No robots to reset";
+            return;
+        }
+
+        for (Robot robot : robots) {
+            relocateRobot(robot, robot.getInitialPosition());
+        }
+        journal.clear();
+
+        fireProfitChanged();
+
+        lastActionSuccessful = true;
+        lastActionMessage = "All robots have returned to their initial positions";
+    }
+
+    /**
+     * Undoes the last robot movement that has not been undone yet.
+     * Restores the robot position, the store tenges and empty count, and the
+     * profit of the robot and of the simulation to their state before it.
+     * Can be called repeatedly to go back over older movements. Removing a
+     * robot or a store forgets its movements; returning robots, resupplying
+     * and resetting forget every movement made before them.
+     */
+    public void undoLastMovement() {
+        logCommand(CommandLog.UNDO);
+
+        if (!journal.canUndo()) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: No movements to undo";
+            return;
+        }
+
+        // A sweep is journaled as several steps, undone together
+        int entry;
+        do {
+            entry = journal.undo();
+            Robot robot = journal.getRobot(entry);
+            relocateRobot(robot, journal.getFromPosition(entry));
+
+            // If the robot collected from a store, give the tenges back
+            Store store = journal.getStore(entry);
+            if (store != null) {
+                saveStore(store);
+                store.restoreTenges(journal.getOldTenges(entry));
+                profit -= journal.getProfit(entry);
+                robot.removeLastProfit(journal.getProfit(entry));
+                leaderboard.update(robot);
+            }
+        } while (journal.isContinuation(entry) && journal.canUndo());
+
+        fireProfitChanged();
+        updateHighestProfitRobot();
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Last movement successfully undone";
+    }
+
+    /**
+     * Redoes the last undone robot movement.
+     * Can be called repeatedly until no undone movements are left; a new
+     * movement drops the undone ones.
+     */
+    public void redoLastMovement() {
+        logCommand(CommandLog.REDO);
+
+        if (!journal.canRedo()) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: No movements to redo";
+            return;
+        }
+
+        do {
+            int entry = journal.redo();
+            Robot robot = journal.getRobot(entry);
+            int newPos = journal.getToPosition(entry);
+            relocateRobot(robot, newPos);
+
+            Store store = journal.getStore(entry);
+            if (store != null) {
+                saveStore(store);
+                store.setTenges(journal.getNewTenges(entry));
+                profit += journal.getProfit(entry);
+                robot.addProfit(journal.getProfit(entry), newPos);
+                leaderboard.update(robot);
+            }
+        } while (journal.redoContinues());
+
+        fireProfitChanged();
+        updateHighestProfitRobot();
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Last undone movement successfully redone";
+    }
+
+    /**
+     * Changes how many movements can be undone, dropping the oldest ones
+     * if more are kept.
+     *
+     * @param limit the maximum number of movements kept, at least 1
+     */
+    public void setUndoLimit(int limit) {
+        logCommand(CommandLog.UNDO_LIMIT, limit);
+
+        if (limit < 1) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: The undo limit must be at least 1";
+            return;
+        }
+
+        journal.setLimit(limit);
+        lastActionSuccessful = true;
+        lastActionMessage = "Up to " + limit + " movements can now be undone";
+    }
+
+    /**
+     * Returns information about all robots on the route.
+     * Includes position, color, and profit details for each robot.
+     *
+     * @return a formatted string with information about all robots
+     */
+    public String getRobotsInfo() {
+        if (robots.isEmpty()) {
+            lastActionSuccessful = true;
+            lastActionMessage = "No robots on the silk road";
+            return "No robots on the silk road.";
+        }
+
+        StringBuilder info = new StringBuilder("Information about robots on the silk road:\n\n");
+
+        for (int i = 0; i < robots.size(); i++) {
+            Robot robot = robots.get(i);
+            info.append("Robot ").append(i).append(":\n")
+                .append(" Color: ").append(robot.getColor()).append("\n")
+                .append(" Current position: ").append(robot.getPosition()).append("\n")
+                .append(" Initial position: ").append(robot.getInitialPosition()).append("\n")
+                .append(" Total profit: ").append(robot.getTotalProfit()).append(" tenges\n");
+
+            if (robot == highestProfitRobot) {
+                info.append(" This robot has the highest profit!\n");
+            }
+
+            info.append("\n");
+        }
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Robot information obtained correctly";
+
+        return info.toString();
+    }
+
+    /**
+     * Places a store on the route at the specified position.
+     * Creates a normal store by default.
+     *
+     * @param position the position of the store (0 to length-1)
+     * @param tenges the initial amount of tenges in the store
+     */
+    public void placeStore(int position, int tenges) {
+        logCommand(CommandLog.PLACE_STORE, position, tenges);
+
+        if (position < 0 || position >= length) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: Invalid position. Must be between 0 and " + (length-1);
+            return;
+        }
+
+        // Check if there's already a store at that position
+        if (storeAt[position] != null) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: There is already a store at position " + position;
+            return;
+        }
+
+        if (tenges < 0) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: The amount of tenges cannot be negative";
+            return;
+        }
+
+        // Create a normal store
+        addStore(new NormalStore(position, tenges));
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Normal store successfully placed at position " +
+                           position + " with " + tenges + " tenges";
+    }
+
+    /**
+     * Places a store on the route with a specific type.
+     * Uses polymorphism to create the appropriate store subclass.
+     *
+     * @param position the position of the store (ignored for autonomous type)
+     * @param tenges the initial amount of tenges in the store
+     * @param type the store type: "normal", "autonomous", "fighter"
+     */
+    public void placeStore(int position, int tenges, String type) {
+        // Normalize type
+        type = type.toLowerCase();
+
+        if (!"autonomous".equals(type)) {
+            logCommand(CommandLog.PLACE_TYPED_STORE, position, tenges, CommandLog.storeTypeCode(type));
+            placeStoreAt(position, tenges, type);
+            return;
+        }
+
+        if (tenges < 0) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: The amount of tenges cannot be negative";
+            return;
+        }
+
+        // Get occupied positions
+        ArrayList<Integer> occupiedPositions = new ArrayList<>();
+        for (Store s : stores) {
+            occupiedPositions.add(s.getPosition());
+        }
+
+        Store store = new AutonomousStore(position, tenges, length, occupiedPositions);
+        int finalPosition = store.getPosition();
+
+        // With no free position left the store falls back to the suggested one
+        if (finalPosition < 0 || finalPosition >= length || storeAt[finalPosition] != null) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: There is no free position for an autonomous store";
+            return;
+        }
+
+        // The chosen position is recorded, so a replay places it there again
+        logCommand(CommandLog.PLACE_TYPED_STORE, finalPosition, tenges, CommandLog.storeTypeCode(type));
+        addStore(store);
+
+        lastActionSuccessful = true;
+        String positionMessage = finalPosition != position ?
+            "position randomly chosen: " + finalPosition : "position " + finalPosition;
+        lastActionMessage = "Store of type " + store.getType() +
+                           " successfully placed at " + positionMessage +
+                           " with " + tenges + " tenges";
+    }
+
+    /**
+     * Places a store of a given type at exactly the given position.
+     * Autonomous stores are placed there instead of choosing one.
+     *
+     * @param position the position of the store
+     * @param tenges the initial amount of tenges in the store
+     * @param type the store type: "normal", "autonomous", "fighter"
+     */
+    void placeStoreAt(int position, int tenges, String type) {
+        if (tenges < 0) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: The amount of tenges cannot be negative";
+            return;
+        }
+
+        // Validate the position
+        if (position < 0 || position >= length) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: Invalid position. Must be between 0 and " + (length-1);
+            return;
+        }
+
+        // Check if there's already a store at that position
+        if (storeAt[position] != null) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: There is already a store at position " + position;
+            return;
+        }
+
+        Store store = createStore(position, tenges, type);
+        addStore(store);
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Store of type " + store.getType() +
+                           " successfully placed at position " + position +
+                           " with " + tenges + " tenges";
+    }
+
+    /**
+     * Creates the store subclass of a type using polymorphism.
+     *
+     * @param position the position of the store
+     * @param tenges the initial amount of tenges in the store
+     * @param type the store type: "normal", "autonomous", "fighter"
+     * @return the new store
+     */
+    private static Store createStore(int position, int tenges, String type) {
+        switch (type.toLowerCase()) {
+            case "autonomous":
+                return new AutonomousStore(position, tenges);
+            case "fighter":
+                return new FighterStore(position, tenges);
+            case "normal":
+            default:
+                return new NormalStore(position, tenges);
+        }
+    }
+
+    /**
+     * Adds a validated store to the route.
+     *
+     * @param store the store to add
+     */
+    private void addStore(Store store) {
+        saveLayout();
+        stores.add(store);
+        storeAt[store.getPosition()] = store;
+        storeIndex.put(store.getPosition(), store);
+        profitBound.addStore(store);
+
+        if (batch == null) {
+            for (SilkRoadListener listener : listeners) {
+                listener.storePlaced(store);
+            }
+        }
+
+        fireProfitChanged();
+    }
+
+    /**
+     * Removes a store from the route at the specified position.
+     *
+     * @param position the position of the store to remove
+     */
+    public void removeStore(int position) {
+        logCommand(CommandLog.REMOVE_STORE, position);
+
+        if (stores.isEmpty()) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: No stores to remove";
+            return;
+        }
+
+        // Search for store at the indicated position
+        Store storeToRemove = findStoreAt(position);
+
+        if (storeToRemove == null) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: No store at position " + position;
+            return;
+        }
+
+        // Remove the store
+        saveLayout();
+        stores.remove(storeToRemove);
+        storeAt[position] = null;
+        storeIndex.remove(position);
+        profitBound.removeStore(storeToRemove);
+        journal.forget(storeToRemove);
+        if (batch == null) {
+            for (SilkRoadListener listener : listeners) {
+                listener.storeRemoved(storeToRemove);
+            }
+        }
+
+        fireProfitChanged();
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Store correctly removed from position " + position;
+    }
+
+    /**
+     * Opens a batch. The commands that follow are applied as usual, but the
+     * listeners are only told about their combined effect when the batch is
+     * committed, and rollbackBatch brings back the state from here.
+     * Batches cannot be nested.
+     */
+    public void beginBatch() {
+        logCommand(CommandLog.BEGIN_BATCH);
+
+        if (batch != null) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: A batch is already open";
+            return;
+        }
+
+        batch = new Batch(this);
+        journal.mark();
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Batch opened";
+    }
+
+    /**
+     * Commits the open batch, telling the listeners once about every robot
+     * and store placed, moved or removed by it, the new leader and the
+     * profit.
+     */
+    public void commitBatch() {
+        logCommand(CommandLog.COMMIT_BATCH);
+
+        if (batch == null) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: No batch is open";
+            return;
+        }
+
+        Batch committed = batch;
+        batch = null;
+        journal.unmark();
+
+        Set<Robot> robotsBefore = committed.robots != null ? identitySet(committed.robots) : null;
+        Set<Robot> robotsAfter = committed.robots != null ? identitySet(robots) : null;
+        Set<Store> storesBefore = committed.stores != null ? identitySet(committed.stores) : null;
+        Set<Store> storesAfter = committed.stores != null ? identitySet(stores) : null;
+
+        for (SilkRoadListener listener : listeners) {
+            if (committed.robots == null) {
+                // Nothing placed or removed: only the robots moved are reported
+                for (Robot robot : committed.movedInOrder) {
+                    listener.robotMoved(robot);
+                }
+            } else {
+                for (Robot robot : committed.robots) {
+                    if (!robotsAfter.contains(robot)) {
+                        listener.robotRemoved(robot);
+                    }
+                }
+                for (Store store : committed.stores) {
+                    if (!storesAfter.contains(store)) {
+                        listener.storeRemoved(store);
+                    }
+                }
+                for (Store store : stores) {
+                    if (!storesBefore.contains(store)) {
+                        listener.storePlaced(store);
+                    }
+                }
+                for (Robot robot : robots) {
+                    if (!robotsBefore.contains(robot)) {
+                        listener.robotPlaced(robot);
+                    } else if (committed.movedRobots.contains(robot)) {
+                        listener.robotMoved(robot);
+                    }
+                }
+            }
+            if (committed.leader != highestProfitRobot) {
+                listener.leaderChanged(committed.leader, highestProfitRobot);
+            }
+        }
+        fireProfitChanged();
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Batch committed";
+    }
+
+    /**
+     * Rolls back the open batch, bringing back the robots, stores, profits,
+     * leader and undo journal from when it was opened. The listeners were
+     * never told about the batch, so they are not told about the rollback.
+     */
+    public void rollbackBatch() {
+        logCommand(CommandLog.ROLLBACK_BATCH);
+
+        if (batch == null) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: No batch is open";
+            return;
+        }
+
+        Batch rolledBack = batch;
+        batch = null;
+        rolledBack.restore(this);
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Batch rolled back";
+    }
+
+    /**
+     * Applies several commands as one batch. If a command fails, the ones
+     * already applied are rolled back and the failure is reported;
+     * otherwise the batch is committed and the listeners are told once.
+     *
+     * @param commands the commands, in order
+     */
+    public void apply(SilkRoadCommand... commands) {
+        if (batch != null) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: A batch is already open";
+            return;
+        }
+
+        beginBatch();
+        for (int i = 0; i < commands.length; i++) {
+            commands[i].applyTo(this);
+            if (!lastActionSuccessful) {
+                String failure = lastActionMessage;
+                rollbackBatch();
+                lastActionSuccessful = false;
+                lastActionMessage = "Error: Command " + i + " failed, batch rolled back: " + failure;
+                return;
+            }
+        }
+        commitBatch();
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Batch of " + commands.length + " commands applied";
+    }
+
+    /**
+     * Checks if a batch is open.
+     *
+     * @return true between beginBatch and its commit or rollback
+     */
+    public boolean isBatchOpen() {
+        return batch != null;
+    }
+
+    private static <T> Set<T> identitySet(List<T> elements) {
+        Set<T> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(elements);
+        return set;
+    }
+
+    /**
+     * Returns the length of the route in meters.
+     *
+     * @return the route length
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Calculates the shortest distance between two positions on the route.
+     * Considers the route as circular and returns the minimum distance.
+     *
+     * @param startPos the starting position
+     * @param endPos the ending position
+     * @return the shortest distance between the two positions
+     */
+    public int calculateDistance(int startPos, int endPos) {
+        // Calculate shortest distance considering the route is circular
+        int directDistance = Math.abs(endPos - startPos);
+        int wrappedDistance = length - directDistance;
+
+        // Return shortest distance
+        return Math.min(directDistance, wrappedDistance);
+    }
+
+    /**
+     * Returns the accumulated profit.
+     *
+     * @return the total accumulated profit in tenges
+     */
+    public int getProfit() {
+        return profit;
+    }
+
+    /**
+     * Returns the total accumulated profit with percentage of maximum possible.
+     * Also updates the last action message with detailed profit information.
+     *
+     * @return the total accumulated profit in tenges
+     */
+    public int profit() {
+        int maxPossibleProfit = calculateMaximumPossibleProfit();
+        double percentage = 0;
+        if (maxPossibleProfit > 0) {
+            percentage = (profit * 100.0) / maxPossibleProfit;
+        }
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Total accumulated profit: " + profit + " tenges (" +
+                           String.format("%.2f", percentage) + "% of maximum possible)";
+
+        return profit;
+    }
+
+    /**
+     * Resupplies all stores with their initial tenges values.
+     * Restores all stores to their original inventory.
+     */
+    public void resupplyStores() {
+        logCommand(CommandLog.RESUPPLY_STORES);
+
+        if (stores.isEmpty()) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: No stores to resupply";
+            return;
+        }
+
+        int totalStores = 0;
+        int totalTenges = 0;
+
+        for (Store store : stores) {
+            int previousTenges = store.getTenges();
+            saveStore(store);
+            store.resupply();
+            totalStores++;
+            totalTenges += (store.getTenges() - previousTenges);
+        }
+        journal.clear();
+
+        fireProfitChanged();
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Resupply completed: " + totalStores + " stores resupplied with " +
+                           totalTenges + " tenges in total";
+    }
+
+    /**
+     * Completely resets the simulation.
+     * Resets profit to 0, resupplies all stores, returns robots to initial
+     * positions, resets robot profit statistics and clears the leader.
+     */
+    public void resetSimulator() {
+        logCommand(CommandLog.RESET);
+
+        // Reset profit to 0
+        this.profit = 0;
+        journal.clear();
+
+        // Resupply all stores
+        for (Store store : stores) {
+            saveStore(store);
+            store.resupply();
+        }
+
+        for (Robot robot : robots) {
+            saveRobot(robot);
+            robot.resetProfit(); // Reset each robot's profit
+            leaderboard.update(robot);
+            relocateRobot(robot, robot.getInitialPosition());
+        }
+
+        // Reset robot with highest profit
+        if (highestProfitRobot != null) {
+            setLeader(highestProfitRobot, null);
+        }
+
+        fireProfitChanged();
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Simulator completely reset";
+    }
+
+    /**
+     * Reboots the simulation for a new day.
+     * Keeps robots and stores but returns robots to initial positions
+     * and resets the profit counter.
+     */
+    public void reboot() {
+        logCommand(CommandLog.REBOOT);
+
+        // Reset profit to 0
+        this.profit = 0;
+
+        // Return all robots to their initial positions
+        logSuspended++;
+        try {
+            returnRobots();
+        } finally {
+            logSuspended--;
+        }
+
+        // Reset profit for each robot
+        for (Robot robot : robots) {
+            saveRobot(robot);
+            robot.resetProfit();
+            leaderboard.update(robot);
+        }
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Simulator rebooted for a new day";
+
+        fireProfitChanged();
+    }
+
+    /**
+     * Removes every robot and store without telling the listeners.
+     * Used when the simulator is finished.
+     */
+    public void clear() {
+        logCommand(CommandLog.CLEAR);
+
+        saveLayout();
+        robots.clear();
+        stores.clear();
+        Arrays.fill(robotAt, null);
+        slots.clear();
+        Arrays.fill(storeAt, null);
+        storeIndex.clear();
+        profitBound.clear();
+        leaderboard.clear();
+        highestProfitRobot = null;
+        journal.clear();
+    }
+
+    /**
+     * Writes the whole state of the simulation, for a CommandLog snapshot.
+     * Robots and stores keep their order, and the undo journal refers to
+     * them by index.
+     *
+     * @param out where to write
+     * @throws IOException if the state cannot be written
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(length);
+        out.writeInt(profit);
+        out.writeBoolean(lastActionSuccessful);
+        out.writeUTF(lastActionMessage);
+
+        // Index of each robot and store, so the journal entries are written in O(1)
+        Map<Robot, Integer> robotIndexes = new IdentityHashMap<>();
+        Map<Store, Integer> storeIndexes = new IdentityHashMap<>();
+
+        out.writeInt(robots.size());
+        for (Robot robot : robots) {
+            robotIndexes.put(robot, robotIndexes.size());
+            out.writeInt(robot.getTypeCode());
+            out.writeInt(robot.getInitialPosition());
+            out.writeInt(robot.getPosition());
+            out.writeInt(robot.getProfitHistoryLimit());
+            out.writeInt(robot.getTotalProfit());
+            IntBuffer history = robot.profitHistory();
+            out.writeInt(history.remaining());
+            while (history.hasRemaining()) {
+                out.writeInt(history.get());
+            }
+        }
+
+        out.writeInt(stores.size());
+        for (Store store : stores) {
+            storeIndexes.put(store, storeIndexes.size());
+            out.writeInt(store.getTypeCode());
+            out.writeInt(store.getPosition());
+            out.writeInt(store.getInitialTenges());
+            out.writeInt(store.getTenges());
+            out.writeInt(store.getEmptyCount());
+        }
+
+        out.writeInt(robotIndexes.getOrDefault(highestProfitRobot, -1));
+        out.writeBoolean(sweepCollection);
+        out.writeInt(profitHistoryLimit);
+
+        out.writeInt(journal.getLimit());
+        out.writeInt(journal.undoableCount());
+        out.writeInt(journal.redoableCount());
+        int entries = journal.undoableCount() + journal.redoableCount();
+        for (int i = 0; i < entries; i++) {
+            int slot = journal.slotOf(i);
+            out.writeInt(robotIndexes.get(journal.getRobot(slot)));
+            out.writeInt(journal.getFromPosition(slot));
+            out.writeInt(journal.getToPosition(slot));
+            out.writeInt(storeIndexes.getOrDefault(journal.getStore(slot), -1));
+            out.writeInt(journal.getOldTenges(slot));
+            out.writeInt(journal.getNewTenges(slot));
+            out.writeInt(journal.getProfit(slot));
+            out.writeBoolean(journal.isContinuation(slot));
+        }
+    }
+
+    /**
+     * Rebuilds a simulation written by writeState.
+     *
+     * @param in where to read
+     * @return the rebuilt model, without listeners
+     * @throws IOException if the state cannot be read
+     */
+    static SilkRoadModel readState(DataInput in) throws IOException {
+        SilkRoadModel model = new SilkRoadModel(in.readInt());
+        int profit = in.readInt();
+        boolean lastActionSuccessful = in.readBoolean();
+        String lastActionMessage = in.readUTF();
+
+        int robotCount = in.readInt();
+        for (int i = 0; i < robotCount; i++) {
+            String type = CommandLog.robotType(in.readInt());
+            Robot robot = createRobot(in.readInt(), type);
+            model.addRobot(robot);
+            model.relocateRobot(robot, in.readInt());
+
+            robot.setProfitHistoryLimit(in.readInt());
+            int totalProfit = in.readInt();
+            int[] history = new int[in.readInt()];
+            for (int move = 0; move < history.length; move++) {
+                history[move] = in.readInt();
+            }
+            robot.restoreProfit(totalProfit, IntBuffer.wrap(history));
+            model.leaderboard.update(robot);
+        }
+
+        int storeCount = in.readInt();
+        for (int i = 0; i < storeCount; i++) {
+            String type = CommandLog.storeType(in.readInt());
+            int position = in.readInt();
+            Store store = createStore(position, in.readInt(), type);
+            model.addStore(store);
+            store.restoreState(in.readInt(), in.readInt());
+        }
+
+        int leader = in.readInt();
+        model.highestProfitRobot = leader >= 0 ? model.robots.get(leader) : null;
+        model.sweepCollection = in.readBoolean();
+        model.profitHistoryLimit = in.readInt();
+
+        model.journal.setLimit(in.readInt());
+        int undoable = in.readInt();
+        int redoable = in.readInt();
+        for (int i = 0; i < undoable + redoable; i++) {
+            Robot robot = model.robots.get(in.readInt());
+            int from = in.readInt();
+            int to = in.readInt();
+            int storeIndex = in.readInt();
+            Store store = storeIndex >= 0 ? model.stores.get(storeIndex) : null;
+            int tengesBefore = in.readInt();
+            int tengesAfter = in.readInt();
+            int moveProfit = in.readInt();
+            model.journal.record(robot, from, to, store, tengesBefore, tengesAfter,
+                                 moveProfit, in.readBoolean());
+        }
+        model.journal.rewind(redoable);
+
+        model.profit = profit;
+        model.lastActionSuccessful = lastActionSuccessful;
+        model.lastActionMessage = lastActionMessage;
+        return model;
+    }
+
+    /**
+     * Returns a 2D array with store information, sorted by position.
+     * Each row contains: [position, tenges, typeNumeric]
+     * where typeNumeric is: 0=normal, 1=autonomous, 2=fighter
+     *
+     * @return 2D array with store data [position][tenges][type]
+     */
+    public int[][] stores() {
+        if (stores.isEmpty()) {
+            return new int[0][0];
+        }
+
+        // Sort stores by position
+        ArrayList<Store> sortedStores = new ArrayList<>(stores);
+        sortedStores.sort((s1, s2) -> Integer.compare(s1.getPosition(), s2.getPosition()));
+
+        // Create array with store data [position, tenges, numericType]
+        int[][] storesArray = new int[sortedStores.size()][3];
+
+        for (int i = 0; i < sortedStores.size(); i++) {
+            Store store = sortedStores.get(i);
+            storesArray[i][0] = store.getPosition();
+            storesArray[i][1] = store.getTenges();
+            storesArray[i][2] = store.getTypeCode();
+        }
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Store information obtained and displayed on console";
+
+        return storesArray;
+    }
+
+    /**
+     * Returns a 2D array with robot information, sorted by position.
+     * Each row contains: [position, totalProfit, typeNumeric]
+     * where typeNumeric is: 0=normal, 1=neverback, 2=tender, 3=lazy
+     *
+     * @return 2D array with robot data [position][profit][type]
+     */
+    public int[][] robots() {
+        if (robots.isEmpty()) {
+            return new int[0][0];
+        }
+
+        // Sort robots by position
+        ArrayList<Robot> sortedRobots = new ArrayList<>(robots);
+        sortedRobots.sort((r1, r2) -> Integer.compare(r1.getPosition(), r2.getPosition()));
+
+        // Create array with robot data [position, totalProfit, numericType]
+        int[][] robotsArray = new int[sortedRobots.size()][3];
+
+        for (int i = 0; i < sortedRobots.size(); i++) {
+            Robot robot = sortedRobots.get(i);
+            robotsArray[i][0] = robot.getPosition();
+            robotsArray[i][1] = robot.getTotalProfit();
+            robotsArray[i][2] = robot.getTypeCode();
+        }
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Robot information obtained and displayed on console";
+
+        return robotsArray;
+    }
+
+    /**
+     * Performs optimal movements for all available robots
+     * using the optimal assignment algorithm.
+     */
+    public void moveRobots() {
+        logCommand(CommandLog.MOVE_ROBOTS);
+
+        if (robots.isEmpty() || stores.isEmpty()) {
+            lastActionSuccessful = false;
+            lastActionMessage = "Error: No robots or stores to perform optimal movements";
+            return;
+        }
+
+        // Get optimal assignments using the solve() algorithm
+        Map<Integer, Integer> optimalAssignments = calculateOptimalAssignments();
+
+        if (optimalAssignments.isEmpty()) {
+            lastActionSuccessful = true;
+            lastActionMessage = "No beneficial movements available";
+            return;
+        }
+
+        // Execute each optimal assignment
+        int movementsMade = 0;
+        for (Map.Entry<Integer, Integer> assignment : optimalAssignments.entrySet()) {
+            int robotIndex = assignment.getKey();
+            int storeIndex = assignment.getValue();
+
+            if (robotIndex >= 0 && robotIndex < robots.size() &&
+                storeIndex >= 0 && storeIndex < stores.size()) {
+
+                Robot robot = robots.get(robotIndex);
+                Store store = stores.get(storeIndex);
+
+                int currentPosition = robot.getPosition();
+                int targetPosition = store.getPosition();
+
+                // Calculate shortest distance
+                int distanceForward = (targetPosition - currentPosition) % length;
+                if (distanceForward < 0) distanceForward += length;
+
+                int distanceBackward = (currentPosition - targetPosition) % length;
+                if (distanceBackward < 0) distanceBackward += length;
+
+                // Choose shortest direction
+                int moveDistance = (distanceForward <= distanceBackward) ? distanceForward : -distanceBackward;
+
+                // Execute the movement, recorded as part of this command
+                logSuspended++;
+                try {
+                    moveRobot(currentPosition, moveDistance);
+                } finally {
+                    logSuspended--;
+                }
+                movementsMade++;
+            }
+        }
+
+        lastActionSuccessful = true;
+        lastActionMessage = movementsMade + " optimal movements were made";
+    }
+
+    /**
+     * Calculates optimal robot-to-store assignments using the same
+     * algorithm as solve() in SilkRoadContest.
+     * Builds a profit matrix and applies the optimal assignment algorithm.
+     *
+     * @return map with assignments (robot index -> store index)
+     */
+    private Map<Integer, Integer> calculateOptimalAssignments() {
+        Map<Integer, Integer> assignments = new HashMap<>();
+
+        if (robots.isEmpty() || stores.isEmpty()) {
+            return assignments;
+        }
+
+        // Construir la matriz de ganancias
+        int[][] profitsMatrix = new int[robots.size()][stores.size()];
+
+        for (int i = 0; i < robots.size(); i++) {
+            Robot robot = robots.get(i);
+            int robotPos = robot.getPosition();
+
+            for (int j = 0; j < stores.size(); j++) {
+                Store store = stores.get(j);
+                int storePos = store.getPosition();
+                int tenges = store.getTenges();
+
+                // Calculate distance (consider circular route)
+                int distance = calculateDistance(robotPos, storePos);
+
+                // Calculate profit (don't allow negative profits)
+                int profit = Math.max(0, tenges - distance);
+                profitsMatrix[i][j] = profit;
+            }
+        }
+
+        // Use optimal assignment algorithm
+        assignments = optimalAssignment(profitsMatrix);
+
+        return assignments;
+    }
+
+    /**
+     * Finds the optimal robot-to-store assignment.
+     * Uses the Hungarian algorithm, which is exact for any number of
+     * robots and stores. Pairs without profit are left out.
+     *
+     * @param profitsMatrix 2D array where profitsMatrix[i][j] is the profit
+     *                      of assigning robot i to store j
+     * @return map with optimal assignments (robot index -> store index)
+     */
+    private Map<Integer, Integer> optimalAssignment(int[][] profitsMatrix) {
+        Map<Integer, Integer> assignments = new HashMap<>();
+
+        if (profitsMatrix.length == 0 || profitsMatrix[0].length == 0) {
+            return assignments;
+        }
+
+        int[] storeForRobot = HungarianAlgorithm.maximize(profitsMatrix);
+
+        for (int i = 0; i < storeForRobot.length; i++) {
+            int storeIndex = storeForRobot[i];
+            if (storeIndex >= 0 && profitsMatrix[i][storeIndex] > 0) {
+                assignments.put(i, storeIndex);
+            }
+        }
+
+        return assignments;
+    }
+
+    /**
+     * Queries the number of times each store has been emptied.
+     *
+     * @return map with store position as key and empty count as value
+     */
+    public HashMap<Integer, Integer> getStoresEmptyCount() {
+        HashMap<Integer, Integer> emptyCountMap = new HashMap<>();
+
+        if (stores.isEmpty()) {
+            lastActionSuccessful = true;
+            lastActionMessage = "No stores on the silk road";
+            return emptyCountMap;
+        }
+
+        for (Store store : stores) {
+            emptyCountMap.put(store.getPosition(), store.getEmptyCount());
+        }
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Empty stores query completed successfully";
+
+        return emptyCountMap;
+    }
+
+    /**
+     * Queries the number of times each store has been emptied.
+     * Sorted by position from lowest to highest.
+     *
+     * @return 2D array with [position, empty_count] for each store
+     */
+    public int[][] emptiedStores() {
+        if (stores.isEmpty()) {
+            return new int[0][0];
+        }
+
+        // Sort stores by position
+        ArrayList<Store> sortedStores = new ArrayList<>(stores);
+        sortedStores.sort((s1, s2) -> Integer.compare(s1.getPosition(), s2.getPosition()));
+
+        // Create 2D array [position, times_empty]
+        int[][] emptyCountArray = new int[sortedStores.size()][2];
+
+        for (int i = 0; i < sortedStores.size(); i++) {
+            Store store = sortedStores.get(i);
+            emptyCountArray[i][0] = store.getPosition();
+            emptyCountArray[i][1] = store.getEmptyCount();
+        }
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Empty stores query completed successfully";
+
+        return emptyCountArray;
+    }
+
+    /**
+     * Queries the profits each robot has achieved in each movement.
+     * Sorted by position from lowest to highest.
+     *
+     * @return 2D array with [position, profit_move_1, profit_move_2, ...]
+     */
+    public int[][] profitPerMove() {
+        if (robots.isEmpty()) {
+            return new int[0][0];
+        }
+
+        // Sort robots by position
+        ArrayList<Robot> sortedRobots = new ArrayList<>(robots);
+        sortedRobots.sort((r1, r2) -> Integer.compare(r1.getPosition(), r2.getPosition()));
+
+        // Determine maximum number of movements made by any robot
+        int maxMoves = 0;
+        for (Robot robot : sortedRobots) {
+            maxMoves = Math.max(maxMoves, robot.profitHistory().remaining());
+        }
+
+        // Create array with [position, profit_move_1, profit_move_2, ...]
+        int[][] profitArray = new int[sortedRobots.size()][maxMoves + 1]; // +1 to include position
+
+        for (int i = 0; i < sortedRobots.size(); i++) {
+            Robot robot = sortedRobots.get(i);
+            IntBuffer history = robot.profitHistory();
+
+            // Save position in first column
+            profitArray[i][0] = robot.getPosition();
+
+            // Fill array with profits per movement, straight from the history
+            history.get(profitArray[i], 1, history.remaining());
+        }
+
+        lastActionSuccessful = true;
+        lastActionMessage = "Profit per move information obtained successfully";
+
+        return profitArray;
+    }
+
+    /**
+     * Place of a robot in the robots list, and the next robot of the list
+     * at the same position.
+     */
+    private static class Slot {
+        private final long order;
+        private Robot next;
+
+        Slot(long order) {
+            this.order = order;
+        }
+    }
+
+    /**
+     * What a batch needs to be rolled back or reported at the commit: the
+     * model's counters when it was opened, and each robot and store as it
+     * was before the batch first changed it. Only what the batch touches is
+     * saved; the lists are copied only if it places or removes something.
+     */
+    private static class Batch {
+        private List<Robot> robots; // Robots when the batch was opened, or null if unchanged
+        private List<Store> stores; // Stores when the batch was opened, or null if unchanged
+        private final Map<Robot, SavedRobot> savedRobots;
+        private final Map<Store, int[]> savedStores; // Store -> {tenges, empty count}
+        private final int profit;
+        private final Robot leader;
+        private final int profitHistoryLimit;
+        private final boolean sweepCollection;
+        private final Set<Robot> movedRobots;
+        private final List<Robot> movedInOrder;
+
+        Batch(SilkRoadModel model) {
+            savedRobots = new IdentityHashMap<>();
+            savedStores = new IdentityHashMap<>();
+            profit = model.profit;
+            leader = model.highestProfitRobot;
+            profitHistoryLimit = model.profitHistoryLimit;
+            sweepCollection = model.sweepCollection;
+            movedRobots = Collections.newSetFromMap(new IdentityHashMap<>());
+            movedInOrder = new ArrayList<>();
+        }
+
+        /**
+         * Puts the saved state back into the model. The indexes are rebuilt
+         * only if robots or stores were placed or removed; otherwise only
+         * the saved robots are moved back in them.
+         *
+         * @param model the model the batch was opened on
+         */
+        void restore(SilkRoadModel model) {
+            if (robots == null) {
+                for (Map.Entry<Robot, SavedRobot> saved : savedRobots.entrySet()) {
+                    Robot robot = saved.getKey();
+                    model.vacate(robot, robot.getPosition());
+                    saved.getValue().restore(robot);
+                    model.occupy(robot);
+                    model.leaderboard.update(robot);
+                }
+            } else {
+                for (Map.Entry<Robot, SavedRobot> saved : savedRobots.entrySet()) {
+                    saved.getValue().restore(saved.getKey());
+                }
+                model.robots.clear();
+                model.stores.clear();
+                Arrays.fill(model.robotAt, null);
+                model.slots.clear();
+                Arrays.fill(model.storeAt, null);
+                model.storeIndex.clear();
+                model.profitBound.clear();
+                model.leaderboard.clear();
+
+                for (Robot robot : robots) {
+                    model.enlist(robot);
+                    model.profitBound.addRobot(robot.getInitialPosition());
+                    model.leaderboard.add(robot);
+                }
+                for (Store store : stores) {
+                    model.stores.add(store);
+                    model.storeAt[store.getPosition()] = store;
+                    model.storeIndex.put(store.getPosition(), store);
+                    model.profitBound.addStore(store);
+                }
+            }
+
+            for (Map.Entry<Store, int[]> saved : savedStores.entrySet()) {
+                int[] state = saved.getValue();
+                saved.getKey().restoreState(state[0], state[1]);
+            }
+
+            model.profit = profit;
+            model.highestProfitRobot = leader;
+            model.profitHistoryLimit = profitHistoryLimit;
+            model.sweepCollection = sweepCollection;
+            model.journal.rollback();
+        }
+    }
+
+    /**
+     * A robot as it was before a batch first changed it.
+     */
+    private static class SavedRobot {
+        private final int position;
+        private final int[] history;
+        private final int totalProfit;
+        private final int historyLimit;
+
+        SavedRobot(Robot robot) {
+            position = robot.getPosition();
+            history = robot.getProfitHistory();
+            totalProfit = robot.getTotalProfit();
+            historyLimit = robot.getProfitHistoryLimit();
+        }
+
+        void restore(Robot robot) {
+            robot.updatePosition(position);
+            robot.setProfitHistoryLimit(historyLimit);
+            robot.restoreProfit(totalProfit, IntBuffer.wrap(history));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,187 @@
+package silkRoad;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Rebuilds a SilkRoadModel from a CommandLog directory.
+ *
+ * The replay loads the latest snapshot taken at or before the requested
+ * command and applies only the commands after it, on a headless model, so
+ * any point of a long session is reached without running it from the
+ * start.
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class SilkRoadReplayer {
+
+    private SilkRoadReplayer() {
+    }
+
+    /**
+     * Rebuilds the model after every command of the log.
+     *
+     * @param directory the log directory
+     * @return the model at the end of the log
+     * @throws IOException if the log cannot be read
+     */
+    public static SilkRoadModel replay(File directory) throws IOException {
+        return replay(directory, Long.MAX_VALUE);
+    }
+
+    /**
+     * Rebuilds the model after the first commands of the log.
+     *
+     * @param directory the log directory
+     * @param commands number of commands to apply
+     * @return the model after those commands, or after the whole log if it is shorter
+     * @throws IOException if the log cannot be read
+     */
+    public static SilkRoadModel replay(File directory, long commands) throws IOException {
+        File snapshot = nearestSnapshot(directory, commands);
+        if (snapshot == null) {
+            throw new IOException("No snapshot found in " + directory);
+        }
+
+        SilkRoadModel model;
+        long applied;
+        long offset;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(snapshot)))) {
+            applied = in.readLong();
+            offset = in.readLong();
+            model = SilkRoadModel.readState(in);
+        }
+
+        try (FileInputStream file = new FileInputStream(new File(directory, CommandLog.COMMANDS_FILE))) {
+            file.getChannel().position(offset);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(file, 1 << 16));
+
+            while (applied < commands) {
+                int command = in.read();
+                if (command < 0) {
+                    break;
+                }
+                apply(model, (byte) command, in);
+                applied++;
+            }
+        } catch (EOFException e) {
+            // A command cut in half by a crash is left out
+        }
+
+        return model;
+    }
+
+    /**
+     * Finds the snapshot with the most commands not beyond the given count.
+     *
+     * @param directory the log directory
+     * @param commands number of commands wanted
+     * @return the snapshot file, or null if there is none
+     */
+    private static File nearestSnapshot(File directory, long commands) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return null;
+        }
+
+        File best = null;
+        long bestIndex = -1;
+        for (File file : files) {
+            long index = CommandLog.snapshotIndex(file.getName());
+            if (index >= 0 && index <= commands && index > bestIndex) {
+                best = file;
+                bestIndex = index;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Reads the arguments of a command and applies it to the model.
+     *
+     * @param model the model
+     * @param command the command code
+     * @param in the command file, positioned after the code
+     * @throws IOException if the arguments cannot be read
+     */
+    private static void apply(SilkRoadModel model, byte command, DataInputStream in) throws IOException {
+        switch (command) {
+            case CommandLog.PLACE_ROBOT:
+                model.placeRobot(in.readInt());
+                break;
+            case CommandLog.PLACE_TYPED_ROBOT:
+                int robotPosition = in.readInt();
+                model.placeRobot(robotPosition, CommandLog.robotType(in.readInt()));
+                break;
+            case CommandLog.PLACE_STORE:
+                int position = in.readInt();
+                model.placeStore(position, in.readInt());
+                break;
+            case CommandLog.PLACE_TYPED_STORE:
+                int storePosition = in.readInt();
+                int tenges = in.readInt();
+                model.placeStoreAt(storePosition, tenges, CommandLog.storeType(in.readInt()));
+                break;
+            case CommandLog.MOVE_ROBOT:
+                int robotToMove = in.readInt();
+                model.moveRobot(robotToMove, in.readInt());
+                break;
+            case CommandLog.MOVE_ROBOTS:
+                model.moveRobots();
+                break;
+            case CommandLog.REMOVE_ROBOT:
+                model.removeRobot(in.readInt());
+                break;
+            case CommandLog.REMOVE_STORE:
+                model.removeStore(in.readInt());
+                break;
+            case CommandLog.RETURN_ROBOTS:
+                model.returnRobots();
+                break;
+            case CommandLog.UNDO:
+                model.undoLastMovement();
+                break;
+            case CommandLog.REDO:
+                model.redoLastMovement();
+                break;
+            case CommandLog.RESUPPLY_STORES:
+                model.resupplyStores();
+                break;
+            case CommandLog.RESET:
+                model.resetSimulator();
+                break;
+            case CommandLog.REBOOT:
+                model.reboot();
+                break;
+            case CommandLog.UNDO_LIMIT:
+                model.setUndoLimit(in.readInt());
+                break;
+            case CommandLog.CLEAR:
+                model.clear();
+                break;
+            case CommandLog.BEGIN_BATCH:
+                model.beginBatch();
+                break;
+            case CommandLog.COMMIT_BATCH:
+                model.commitBatch();
+                break;
+            case CommandLog.ROLLBACK_BATCH:
+                model.rollbackBatch();
+                break;
+            case CommandLog.SWEEP_COLLECTION:
+                model.setSweepCollection(in.readInt() != 0);
+                break;
+            case CommandLog.PROFIT_HISTORY_LIMIT:
+                model.setProfitHistoryLimit(in.readInt());
+                break;
+            default:
+                throw new IOException("Unknown command " + command + " in the log");
+        }
+    }
+}
@@ -11,6 +11,13 @@ import shapes.Rectangle;
  * @version 5.0
  */
 public abstract class Store {
+    /** Type code of normal stores, as in SilkRoad.stores(). */
+    public static final byte NORMAL = 0;
+    /** Type code of autonomous stores. */
+    public static final byte AUTONOMOUS = 1;
+    /** Type code of fighter stores. */
+    public static final byte FIGHTER = 2;
+    
     protected int position;
     protected int tenges;
     protected int initialTenges;
@@ -37,13 +44,9 @@ public abstract class Store {
         this.isEmpty = (tenges == 0);
         this.isVisible = false;
         
-        this.triangle = new Triangle();
-        this.triangle.changeSize(15, 15);
-        this.triangle.changeColor(this.color);
-        
-        this.emptySquare = new Rectangle();
-        this.emptySquare.changeSize(15, 15);
-        this.emptySquare.changeColor("black");
+        // The shapes are created the first time the store is drawn
+        this.triangle = null;
+        this.emptySquare = null;
     }
     
     /**
@@ -54,6 +57,14 @@ public abstract class Store {
      */
     public abstract String getType();
     
+    /**
+     * Returns the store type as a number, to compare types without strings.
+     * Must be implemented by subclasses.
+     * 
+     * @return NORMAL, AUTONOMOUS or FIGHTER
+     */
+    public abstract byte getTypeCode();
+    
     /**
      * Checks if a robot can take tenges from this store.
      * Can be overridden by subclasses to implement different access rules.
@@ -67,6 +78,7 @@ public abstract class Store {
      * Makes the store visible on the canvas.
      */
     public void makeVisible() {
+        ensureShapes();
         if (isEmpty) {
             emptySquare.makeVisible();
         } else {
@@ -79,8 +91,10 @@ public abstract class Store {
      * Makes the store invisible on the canvas.
      */
     public void makeInvisible() {
-        triangle.makeInvisible();
-        emptySquare.makeInvisible();
+        if (triangle != null) {
+            triangle.makeInvisible();
+            emptySquare.makeInvisible();
+        }
         isVisible = false;
     }
     
@@ -91,8 +105,10 @@ public abstract class Store {
      * @param y y coordinate on the canvas
      */
     public void updateCanvasPosition(int x, int y) {
-        triangle.makeInvisible();
-        emptySquare.makeInvisible();
+        if (triangle != null) {
+            triangle.makeInvisible();
+            emptySquare.makeInvisible();
+        }
         
         triangle = new Triangle();
         triangle.changeSize(15, 15);
@@ -125,17 +141,34 @@ public abstract class Store {
     public void setVisible(boolean visible) {
         this.isVisible = visible;
         if (visible) {
+            ensureShapes();
             if (isEmpty) {
                 emptySquare.makeVisible();
             } else {
                 triangle.makeVisible();
             }
-        } else {
+        } else if (triangle != null) {
             triangle.makeInvisible();
             emptySquare.makeInvisible();
         }
     }
     
+    /**
+     * Creates the shapes if the store has never been drawn.
+     * Stores of a headless SilkRoadModel never need them.
+     */
+    private void ensureShapes() {
+        if (triangle == null) {
+            triangle = new Triangle();
+            triangle.changeSize(15, 15);
+            triangle.changeColor(this.color);
+            
+            emptySquare = new Rectangle();
+            emptySquare.changeSize(15, 15);
+            emptySquare.changeColor("black");
+        }
+    }
+    
     /**
      * Returns the store's position.
      * 
@@ -190,6 +223,30 @@ public abstract class Store {
         this.tenges = tenges;
     }
     
+    /**
+     * Restores the tenges the store had before a robot collected from it.
+     * If that robot emptied the store, the empty count goes back as well.
+     * 
+     * @param tenges quantity of tenges before the robot collected
+     */
+    public void restoreTenges(int tenges) {
+        if (this.tenges == 0 && tenges > 0 && emptyCount > 0) {
+            this.emptyCount--;
+        }
+        setTenges(tenges);
+    }
+    
+    /**
+     * Sets the tenges and the empty count saved in a snapshot.
+     * 
+     * @param tenges quantity of tenges
+     * @param emptyCount number of times the store was emptied
+     */
+    protected void restoreState(int tenges, int emptyCount) {
+        setTenges(tenges);
+        this.emptyCount = emptyCount;
+    }
+    
     /**
      * Returns the initial quantity of tenges in the store.
      * 
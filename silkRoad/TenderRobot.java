@@ -24,6 +24,11 @@ public class TenderRobot extends Robot {
         return "tender";
     }
     
+    @Override
+    public byte getTypeCode() {
+        return TENDER;
+    }
+    
     @Override
     public boolean canMove(int moveDistance) {
         return true; // Can move in any direction
@@ -0,0 +1,206 @@
+package test;
+
+import silkRoad.SilkRoadContest;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Small benchmark comparing the exact engines of SilkRoadContest on the
+ * same random contest, and a list-based reference that solves it the way
+ * SilkRoadContest did before the engines: boxed robot positions and store
+ * lists, with every table rebuilt each day.
+ * Reports time and bytes allocated by the solving thread, so the allocation
+ * rate of the boxed path and of each packed engine can be compared.
+ *
+ * Usage: java test.ContestBenchmark [stores] [robots] [rounds]
+ *
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class ContestBenchmark {
+    private static final String[] ENGINES = {"bitmask", "incremental", "reduced", "lean"};
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of stores, robots and rounds
+     */
+    public static void main(String[] args) {
+        int numStores = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        int numRobots = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        int[][] days = randomDays(numStores, numRobots, new Random(1));
+
+        // Warm up every engine before measuring, checking they agree
+        int[] expected = solveWithLists(days);
+        for (String engine : ENGINES) {
+            if (!Arrays.equals(expected, SilkRoadContest.solve(days, engine))) {
+                System.out.println("Warning: " + engine + " disagrees with the list-based reference");
+            }
+        }
+
+        for (int round = 1; round <= rounds; round++) {
+            System.out.println("Round " + round + ":");
+            report(String.format("  %-11s", "lists"), measure(() -> solveWithLists(days)), days.length - 1);
+            for (String engine : ENGINES) {
+                long[] measurement = measure(() -> SilkRoadContest.solve(days, engine));
+                report(String.format("  %-11s", engine), measurement, days.length - 1);
+            }
+        }
+    }
+
+    /**
+     * Solves a contest on boxed lists, rebuilding every table each day, as
+     * SilkRoadContest did before the packed engines. Kept as the baseline
+     * of the allocation comparison.
+     *
+     * @param days the contest
+     * @return maximum profit after each day
+     */
+    private static int[] solveWithLists(int[][] days) {
+        int n = days[0][0];
+        int[] result = new int[n];
+        List<Integer> robots = new ArrayList<>();
+        List<int[]> stores = new ArrayList<>();
+
+        for (int day = 0; day < n; day++) {
+            int[] event = days[day + 1];
+            if (event[0] == 1) {
+                robots.add(event[1]);
+            } else {
+                stores.add(new int[]{event[1], event[2]});
+            }
+            result[day] = maxProfitWithLists(robots, stores);
+        }
+
+        return result;
+    }
+
+    /**
+     * Maximum profit of one day: the best profit of every robot on every
+     * subset of stores, then a DP that splits the stores among the robots.
+     */
+    private static int maxProfitWithLists(List<Integer> robots, List<int[]> stores) {
+        if (robots.isEmpty() || stores.isEmpty()) {
+            return 0;
+        }
+
+        int numStores = stores.size();
+        int numRobots = robots.size();
+
+        List<int[]> sortedStores = new ArrayList<>(stores);
+        sortedStores.sort((s1, s2) -> Integer.compare(s1[0], s2[0]));
+
+        int[] subsetTenges = new int[1 << numStores];
+        for (int mask = 1; mask < (1 << numStores); mask++) {
+            int lowest = Integer.numberOfTrailingZeros(mask);
+            subsetTenges[mask] = subsetTenges[mask & (mask - 1)] + sortedStores.get(lowest)[1];
+        }
+
+        List<int[]> robotProfits = new ArrayList<>();
+        for (int robotPos : robots) {
+            int[] profits = new int[1 << numStores];
+            for (int mask = 1; mask < (1 << numStores); mask++) {
+                int left = sortedStores.get(Integer.numberOfTrailingZeros(mask))[0];
+                int right = sortedStores.get(31 - Integer.numberOfLeadingZeros(mask))[0];
+                // Same closed form as SilkRoadContest.routeProfit
+                int approach = Math.min(Math.abs(robotPos - left), Math.abs(robotPos - right));
+                profits[mask] = Math.max(0, subsetTenges[mask] - (right - left) - approach);
+            }
+            robotProfits.add(profits);
+        }
+
+        int inf = Integer.MIN_VALUE / 2;
+        int[][] dp = new int[1 << numStores][numRobots + 1];
+        for (int[] row : dp) {
+            Arrays.fill(row, inf);
+        }
+        dp[0][0] = 0;
+
+        int result = 0;
+        for (int mask = 0; mask < (1 << numStores); mask++) {
+            for (int k = 0; k <= numRobots; k++) {
+                if (dp[mask][k] == inf) {
+                    continue;
+                }
+                result = Math.max(result, dp[mask][k]);
+
+                int unvisited = ((1 << numStores) - 1) ^ mask;
+                if (unvisited == 0 || k >= numRobots) {
+                    continue;
+                }
+                for (int submask = unvisited; submask > 0; submask = (submask - 1) & unvisited) {
+                    int best = Integer.MIN_VALUE;
+                    for (int r = 0; r < numRobots; r++) {
+                        best = Math.max(best, robotProfits.get(r)[submask]);
+                    }
+                    dp[mask | submask][k + 1] = Math.max(dp[mask | submask][k + 1], dp[mask][k] + best);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Measures elapsed time and bytes allocated by the current thread.
+     *
+     * @param task work to measure
+     * @return array with [nanoseconds, bytes allocated]
+     */
+    private static long[] measure(Runnable task) {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        task.run();
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        return new long[]{elapsed, bytes};
+    }
+
+    /**
+     * Prints one measurement.
+     */
+    private static void report(String label, long[] measurement, int numDays) {
+        double millis = measurement[0] / 1_000_000.0;
+        double megabytes = measurement[1] / (1024.0 * 1024.0);
+        double rate = millis > 0 ? megabytes / (millis / 1000.0) : 0;
+
+        System.out.println(label + ": " + String.format("%.1f", millis) + " ms, "
+                           + String.format("%.2f", megabytes) + " MB allocated ("
+                           + (measurement[1] / numDays) + " bytes/day, "
+                           + String.format("%.1f", rate) + " MB/s)");
+    }
+
+    /**
+     * Builds a contest with the given number of stores and robots in random order.
+     */
+    private static int[][] randomDays(int numStores, int numRobots, Random random) {
+        int n = numStores + numRobots;
+        int[][] days = new int[n + 1][];
+        days[0] = new int[]{n};
+
+        int robotsLeft = numRobots;
+        int storesLeft = numStores;
+        for (int i = 1; i <= n; i++) {
+            boolean robot = storesLeft == 0 || (robotsLeft > 0 && random.nextInt(n) < numRobots);
+            if (robot) {
+                days[i] = new int[]{1, random.nextInt(1000)};
+                robotsLeft--;
+            } else {
+                days[i] = new int[]{2, random.nextInt(1000), random.nextInt(200)};
+                storesLeft--;
+            }
+        }
+
+        return days;
+    }
+}
@@ -0,0 +1,157 @@
+package test;
+import shapes.Scene;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * Test class for the Scene of the Canvas.
+ * Paints on images without a window, so it also runs headless.
+ * @author Exael74 (Github User for Stiven Pardo)
+ * @version 5.0
+ */
+public class SceneTest {
+
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 200;
+    private static final String[] COLORS = {"red", "blue", "green", "black", "yellow", "cyan", "pink", "magenta"};
+
+    /**
+     * Tests that repainting only the area each change touched leaves the
+     * same pixels as repainting the whole scene after every change.
+     */
+    @Test
+    public void AccordingPshouldRepaintTheChangedAreaLikeTheWholeScene() {
+        Random random = new Random(1);
+        java.awt.Rectangle all = new java.awt.Rectangle(0, 0, WIDTH, HEIGHT);
+        for (int trial = 0; trial < 40; trial++) {
+            Scene scene = new Scene();
+            BufferedImage partial = newImage();
+            BufferedImage whole = newImage();
+            BufferedImage scratch = newImage();
+            Graphics2D partialGraphic = partial.createGraphics();
+            Graphics2D wholeGraphic = whole.createGraphics();
+            scene.snapshot(all).paint(partialGraphic, scratch, Color.white);
+
+            Object[] references = new Object[15];
+            for (int i = 0; i < references.length; i++) {
+                references[i] = new Object();
+            }
+            for (int change = 0; change < 60; change++) {
+                Object reference = references[random.nextInt(references.length)];
+                java.awt.Rectangle area;
+                if (random.nextInt(4) == 0) {
+                    area = scene.remove(reference);
+                } else {
+                    // Some shapes cross the edges of the image
+                    area = scene.put(reference, COLORS[random.nextInt(COLORS.length)],
+                                     randomShape(random, -20, -20, WIDTH, HEIGHT));
+                }
+                if (area != null) {
+                    scene.snapshot(area.intersection(all)).paint(partialGraphic, scratch, Color.white);
+                }
+                scene.snapshot(all).paint(wholeGraphic, scratch, Color.white);
+                assertSamePixels(whole, partial);
+            }
+        }
+    }
+
+    /**
+     * Tests that the shapes painted from cached sprites leave the same
+     * pixels as drawing each shape, including shapes of the same kind,
+     * size and colour at different places, which share a sprite, and
+     * shapes with no sprite.
+     */
+    @Test
+    public void AccordingPshouldPaintSpritesLikeTheShapesThemselves() {
+        Random random = new Random(3);
+        for (int trial = 0; trial < 60; trial++) {
+            Scene scene = new Scene();
+            BufferedImage drawn = newImage();
+            BufferedImage painted = newImage();
+            Graphics2D graphic = drawn.createGraphics();
+            graphic.setColor(Color.white);
+            graphic.fillRect(0, 0, WIDTH, HEIGHT);
+
+            for (int i = 0; i < 30; i++) {
+                // Inside the image: at its edges a sprite may differ by a pixel
+                java.awt.Shape shape = random.nextInt(10) == 0
+                    ? new Ellipse2D.Double(30.5 + random.nextInt(100), 30.5 + random.nextInt(100), 20, 20)
+                    : randomShape(random, 30, 30, WIDTH - 100, HEIGHT - 100);
+                String color = COLORS[random.nextInt(COLORS.length)];
+                scene.put(new Object(), color, shape);
+                graphic.setColor(colorOf(color));
+                graphic.draw(shape);
+                graphic.fill(shape);
+            }
+            scene.snapshot(new java.awt.Rectangle(0, 0, WIDTH, HEIGHT))
+                 .paint(painted.createGraphics(), newImage(), Color.white);
+            assertSamePixels(drawn, painted);
+        }
+    }
+
+    /**
+     * Creates an image of the size of the scene.
+     */
+    private BufferedImage newImage() {
+        return new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * Creates a circle, rectangle or triangle like the ones of the shapes
+     * package, with its corner at a random point of the given range.
+     */
+    private java.awt.Shape randomShape(Random random, int x0, int y0, int xRange, int yRange) {
+        int x = x0 + random.nextInt(xRange);
+        int y = y0 + random.nextInt(yRange);
+        int width = 2 + random.nextInt(40);
+        int height = 2 + random.nextInt(40);
+        switch (random.nextInt(3)) {
+            case 0:
+                return new Ellipse2D.Double(x, y, width, width);
+            case 1:
+                return new java.awt.Rectangle(x, y, width, height);
+            default:
+                return new Polygon(new int[] {x, x + width / 2, x - width / 2},
+                                   new int[] {y, y + height, y + height}, 3);
+        }
+    }
+
+    /**
+     * Returns the colour of one of the colour names used by the tests.
+     */
+    private Color colorOf(String color) {
+        switch (color) {
+            case "red":
+                return Color.red;
+            case "blue":
+                return Color.blue;
+            case "green":
+                return Color.green;
+            case "yellow":
+                return Color.yellow;
+            case "cyan":
+                return Color.cyan;
+            case "pink":
+                return Color.pink;
+            case "magenta":
+                return Color.magenta;
+            default:
+                return Color.black;
+        }
+    }
+
+    /**
+     * Checks that two images of the same size have the same pixels.
+     */
+    private void assertSamePixels(BufferedImage expected, BufferedImage actual) {
+        int[] expectedPixels = expected.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+        int[] actualPixels = actual.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+        assertArrayEquals(expectedPixels, actualPixels);
+    }
+}
@@ -1,5 +1,11 @@
 package test;
 import silkRoad.SilkRoadContest;
+import silkRoad.ParallelEngine;
+import silkRoad.ReducedEngine;
+import silkRoad.LeanEngine;
+import silkRoad.ContestResult;
+import silkRoad.ContestReader;
+import silkRoad.ContestWriter;
 import org.junit.Before;
 import org.junit.After;
 import org.junit.Test;
@@ -209,6 +215,216 @@ public class SilkRoadContestTest {
         System.out.println("Prueba 'accordingPshouldCalcularGananciasAcumulativasCorrectamente' exitosa.");
     }
     
+    /**
+     * Test that verifies that every other engine returns the same profits as
+     * the exhaustive bitmask engine on random instances, and the parallel
+     * engine also with its own pool.
+     */
+    @Test
+    public void accordingPshouldCoincidirMotoresConMotorBitmask() {
+        String[] motores = {"line", "incremental", "parallel", "reduced", "lean"};
+        java.util.Random random = new java.util.Random(7);
+        
+        for (int instance = 0; instance < 200; instance++) {
+            int[][] dias = generarDiasAleatorios(random, 1 + random.nextInt(10));
+            int[] esperado = SilkRoadContest.solve(dias, "bitmask");
+            
+            for (String motor : motores) {
+                assertArrayEquals(motor, esperado, SilkRoadContest.solve(dias, motor));
+            }
+            try (ParallelEngine motorPropio = new ParallelEngine(2)) {
+                assertArrayEquals(esperado, SilkRoadContest.solve(dias, motorPropio));
+            }
+        }
+        
+        System.out.println("Prueba 'accordingPshouldCoincidirMotoresConMotorBitmask' exitosa.");
+    }
+    
+    /**
+     * Test that verifies the closed-form route profit used by every engine
+     * against an exhaustive search, where each robot's route over a subset
+     * of stores is found with Held-Karp over every order of visit.
+     */
+    @Test
+    public void accordingPshouldCoincidirConRecorridosExhaustivos() {
+        java.util.Random random = new java.util.Random(29);
+        
+        for (int instance = 0; instance < 300; instance++) {
+            int[][] dias = generarDiasAleatorios(random, 1 + random.nextInt(9));
+            int[] esperado = gananciasExhaustivas(dias);
+            
+            assertArrayEquals(esperado, SilkRoadContest.solve(dias, "bitmask"));
+            assertArrayEquals(esperado, SilkRoadContest.solve(dias, "line"));
+        }
+        
+        System.out.println("Prueba 'accordingPshouldCoincidirConRecorridosExhaustivos' exitosa.");
+    }
+    
+    /**
+     * Test that verifies that the lean engine keeps two tables of 2^S ints
+     * when the robots are at least the stores and three otherwise, however
+     * many robots there are, besides the small position arrays.
+     */
+    @Test
+    public void accordingPshouldLimitarMemoriaDelMotorLigero() {
+        int tiendas = 16;
+        long tabla = 4L << tiendas;
+        
+        LeanEngine sinTope = motorLigero(tiendas, tiendas);
+        assertTrue(sinTope.getPeakBytes() >= 2 * tabla);
+        assertTrue(sinTope.getPeakBytes() < 2 * tabla + 1024);
+        
+        LeanEngine dosRobots = motorLigero(tiendas, 2);
+        LeanEngine ochoRobots = motorLigero(tiendas, 8);
+        assertTrue(dosRobots.getPeakBytes() >= 3 * tabla);
+        assertTrue(dosRobots.getPeakBytes() < 3 * tabla + 1024);
+        assertEquals(dosRobots.getPeakBytes(), ochoRobots.getPeakBytes());
+        
+        System.out.println("Prueba 'accordingPshouldLimitarMemoriaDelMotorLigero' exitosa.");
+    }
+    
+    /**
+     * Test that verifies that the reduced engine splits far apart groups of
+     * stores, solving instances with more stores than the bitmask DP allows.
+     */
+    @Test
+    public void accordingPshouldSepararGruposLejanosConMotorReducido() {
+        int grupos = 20;
+        int n = grupos * 5;
+        int[][] dias = new int[n + 1][];
+        dias[0] = new int[]{n};
+        
+        int dia = 1;
+        for (int g = 0; g < grupos; g++) {
+            int base = g * 1000;
+            dias[dia++] = new int[]{1, base};
+            for (int s = 1; s <= 4; s++) {
+                dias[dia++] = new int[]{2, base + s * 10, 25};
+            }
+        }
+        
+        ReducedEngine motor = new ReducedEngine();
+        assertArrayEquals(SilkRoadContest.solve(dias, "line"), SilkRoadContest.solve(dias, motor));
+        assertEquals(4, motor.getLargestCluster());
+        
+        System.out.println("Prueba 'accordingPshouldSepararGruposLejanosConMotorReducido' exitosa.");
+    }
+    
+    /**
+     * Test that verifies that solving a batch returns, in input order, the
+     * same profits as solving each instance on its own.
+     */
+    @Test
+    public void accordingPshouldResolverLoteEnOrdenDeEntrada() {
+        java.util.Random random = new java.util.Random(17);
+        List<int[][]> instancias = new java.util.ArrayList<>();
+        for (int instance = 0; instance < 100; instance++) {
+            instancias.add(generarDiasAleatorios(random, 1 + random.nextInt(10)));
+        }
+        
+        List<ContestResult> resultados = SilkRoadContest.solveAll(instancias.stream());
+        
+        assertEquals(instancias.size(), resultados.size());
+        for (int i = 0; i < instancias.size(); i++) {
+            assertEquals(i, resultados.get(i).getIndex());
+            assertArrayEquals(SilkRoadContest.solve(instancias.get(i)), resultados.get(i).getProfits());
+            assertTrue(resultados.get(i).getNanos() >= 0);
+        }
+        
+        System.out.println("Prueba 'accordingPshouldResolverLoteEnOrdenDeEntrada' exitosa.");
+    }
+    
+    /**
+     * Test that verifies that reading the text format, from a stream or from
+     * a mapped file, gives the same profits as the days matrix, and that the
+     * writer prints one answer per line.
+     */
+    @Test
+    public void accordingPshouldLeerEntradaDeTextoYEscribirRespuestas() throws java.io.IOException {
+        int[][] dias = {{6}, {1, 20}, {2, 15, 15}, {2, 40, 50}, {1, 50}, {2, 10, 30}, {2, -5, 4}};
+        String entrada = "6\n1 20\n2 15 15\n2 40 50\n1 50\n2 10 30\n2 -5 4\n";
+        int[] esperado = SilkRoadContest.solve(dias);
+        
+        java.io.InputStream stream = new java.io.ByteArrayInputStream(entrada.getBytes());
+        assertArrayEquals(esperado, SilkRoadContest.solve(stream, "line"));
+        
+        java.io.File archivo = java.io.File.createTempFile("contest", ".txt");
+        archivo.deleteOnExit();
+        java.nio.file.Files.write(archivo.toPath(), entrada.getBytes());
+        
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (ContestReader reader = ContestReader.open(archivo, true)) {
+            reader.solve(SilkRoadContest.createEngine("line"), new ContestWriter(salida));
+        }
+        
+        StringBuilder lineas = new StringBuilder();
+        for (int ganancia : esperado) {
+            lineas.append(ganancia).append('\n');
+        }
+        assertEquals(lineas.toString(), salida.toString());
+        
+        System.out.println("Prueba 'accordingPshouldLeerEntradaDeTextoYEscribirRespuestas' exitosa.");
+    }
+    
+    /**
+     * Test that verifies that a file mapped in windows smaller than a number
+     * is read like the whole file, and that a byte above 0x7F is a separator
+     * and not the end of the input.
+     */
+    @Test
+    public void accordingPshouldLeerArchivoMapeadoPorVentanas() throws java.io.IOException {
+        int[][] dias = {{6}, {1, 20}, {2, 15, 15}, {2, 40, 50}, {1, 50}, {2, 10, 30}, {2, -5, 4}};
+        byte[] entrada = "6\n 1 20\n2 15 15\n2 40 50\n1 50\n2 10 30\n2 -5 4\n".getBytes();
+        entrada[2] = (byte) 0xFF;
+        int[] esperado = SilkRoadContest.solve(dias);
+        
+        java.io.File archivo = java.io.File.createTempFile("contest", ".txt");
+        archivo.deleteOnExit();
+        java.nio.file.Files.write(archivo.toPath(), entrada);
+        
+        for (int ventana = 1; ventana <= 4; ventana++) {
+            try (ContestReader reader = ContestReader.openMapped(archivo, ventana)) {
+                assertArrayEquals(esperado, reader.solve(SilkRoadContest.createEngine("line")));
+            }
+        }
+        try (ContestReader reader = ContestReader.open(archivo, false)) {
+            assertArrayEquals(esperado, reader.solve(SilkRoadContest.createEngine("line")));
+        }
+        
+        System.out.println("Prueba 'accordingPshouldLeerArchivoMapeadoPorVentanas' exitosa.");
+    }
+    
+    /**
+     * Test that verifies that the line engine handles instances far beyond
+     * the reach of the bitmask DP.
+     */
+    @Test
+    public void accordingPshouldResolverInstanciasGrandesConMotorLineal() {
+        int n = 600;
+        int[][] dias = new int[n + 1][];
+        dias[0] = new int[]{n};
+        
+        for (int i = 1; i <= n; i++) {
+            if (i % 4 == 0) {
+                dias[i] = new int[]{1, i * 3};
+            } else {
+                dias[i] = new int[]{2, i * 3, 10};
+            }
+        }
+        
+        int[] resultado = SilkRoadContest.solve(dias);
+        
+        assertEquals(n, resultado.length);
+        assertEquals(0, resultado[0]);
+        
+        // Profit never decreases when robots or stores are added
+        for (int i = 1; i < n; i++) {
+            assertTrue("La ganancia no debe disminuir", resultado[i] >= resultado[i - 1]);
+        }
+        
+        System.out.println("Prueba 'accordingPshouldResolverInstanciasGrandesConMotorLineal' exitosa.");
+    }
+    
     // NEGATIVE TESTS
 
     /**
@@ -332,6 +548,148 @@ public class SilkRoadContestTest {
         System.out.println("Prueba 'accordingPshouldNotProcesarDiasFaltantesOConFormatoIncorrecto' exitosa.");
     }
     
+    /**
+     * Helper method to create a lean engine with stores ten meters apart and
+     * robots at random places, and to solve it once.
+     * 
+     * @param tiendas number of stores
+     * @param robots number of robots
+     * @return the solved engine
+     */
+    private LeanEngine motorLigero(int tiendas, int robots) {
+        java.util.Random random = new java.util.Random(tiendas + robots);
+        LeanEngine motor = new LeanEngine();
+        for (int i = 0; i < tiendas; i++) {
+            motor.addStore(i * 10, 5 + random.nextInt(30));
+        }
+        for (int i = 0; i < robots; i++) {
+            motor.addRobot(random.nextInt(tiendas * 10));
+        }
+        motor.maxProfit();
+        return motor;
+    }
+    
+    /**
+     * Helper method to generate random days with robots and stores.
+     * 
+     * @param random random number generator
+     * @param n number of days
+     * @return days array with n random actions
+     */
+    private int[][] generarDiasAleatorios(java.util.Random random, int n) {
+        int[][] dias = new int[n + 1][];
+        dias[0] = new int[]{n};
+        
+        for (int i = 1; i <= n; i++) {
+            if (random.nextInt(3) == 0) {
+                dias[i] = new int[]{1, random.nextInt(50)};
+            } else {
+                dias[i] = new int[]{2, random.nextInt(50), random.nextInt(40)};
+            }
+        }
+        
+        return dias;
+    }
+    
+    /**
+     * Helper method that computes the maximum profit after each day by
+     * exhaustive search, independently of the engines.
+     * 
+     * @param dias days in the format of solve
+     * @return maximum profit after each day
+     */
+    private int[] gananciasExhaustivas(int[][] dias) {
+        int n = dias[0][0];
+        int[] ganancias = new int[n];
+        List<Integer> robots = new java.util.ArrayList<>();
+        List<int[]> tiendas = new java.util.ArrayList<>();
+        
+        for (int dia = 1; dia <= n; dia++) {
+            if (dias[dia][0] == 1) {
+                robots.add(dias[dia][1]);
+            } else {
+                tiendas.add(new int[]{dias[dia][1], dias[dia][2]});
+            }
+            
+            // Best route for each subset of stores, taken by the robot that does it best
+            int subconjuntos = 1 << tiendas.size();
+            int[] grupo = new int[subconjuntos];
+            for (int robot : robots) {
+                int[] ruta = rutasHeldKarp(robot, tiendas);
+                for (int mask = 1; mask < subconjuntos; mask++) {
+                    grupo[mask] = Math.max(grupo[mask], ruta[mask]);
+                }
+            }
+            
+            // mejores[mask] = best profit splitting mask into at most as many routes as robots
+            int inf = Integer.MIN_VALUE / 2;
+            int[] mejores = new int[subconjuntos];
+            Arrays.fill(mejores, inf);
+            mejores[0] = 0;
+            for (int k = 0; k < robots.size(); k++) {
+                int[] siguientes = mejores.clone();
+                for (int mask = 1; mask < subconjuntos; mask++) {
+                    for (int sub = mask; sub > 0; sub = (sub - 1) & mask) {
+                        if (mejores[mask ^ sub] != inf) {
+                            siguientes[mask] = Math.max(siguientes[mask], mejores[mask ^ sub] + grupo[sub]);
+                        }
+                    }
+                }
+                mejores = siguientes;
+            }
+            
+            int mejor = 0;
+            for (int valor : mejores) {
+                mejor = Math.max(mejor, valor);
+            }
+            ganancias[dia - 1] = mejor;
+        }
+        
+        return ganancias;
+    }
+    
+    /**
+     * Helper method that computes, for every subset of stores, the best
+     * profit of one robot visiting exactly those stores in the best order.
+     * 
+     * @param robot initial position of the robot
+     * @param tiendas stores as {position, tenges}
+     * @return best profit for each mask of stores
+     */
+    private int[] rutasHeldKarp(int robot, List<int[]> tiendas) {
+        int m = tiendas.size();
+        int inf = Integer.MIN_VALUE / 2;
+        
+        // recorrido[mask][last] = best profit visiting mask and ending at last
+        int[][] recorrido = new int[1 << m][m];
+        for (int[] fila : recorrido) {
+            Arrays.fill(fila, inf);
+        }
+        for (int i = 0; i < m; i++) {
+            recorrido[1 << i][i] = tiendas.get(i)[1] - Math.abs(robot - tiendas.get(i)[0]);
+        }
+        
+        int[] ruta = new int[1 << m];
+        for (int mask = 1; mask < (1 << m); mask++) {
+            ruta[mask] = inf;
+            for (int last = 0; last < m; last++) {
+                if (recorrido[mask][last] == inf) {
+                    continue;
+                }
+                ruta[mask] = Math.max(ruta[mask], recorrido[mask][last]);
+                for (int next = 0; next < m; next++) {
+                    if ((mask & (1 << next)) == 0) {
+                        int distancia = Math.abs(tiendas.get(last)[0] - tiendas.get(next)[0]);
+                        int valor = recorrido[mask][last] + tiendas.get(next)[1] - distancia;
+                        recorrido[mask | (1 << next)][next] = Math.max(recorrido[mask | (1 << next)][next], valor);
+                    }
+                }
+            }
+        }
+        
+        return ruta;
+    }
+    
     /**
      * Helper method to add a day to the days array.
      * 
@@ -1,5 +1,14 @@
 package test;
 import silkRoad.SilkRoad;
+import silkRoad.SilkRoadModel;
+import silkRoad.SilkRoadReplayer;
+import silkRoad.SilkRoadCommand;
+import silkRoad.SilkRoadListener;
+import silkRoad.Store;
+import silkRoad.Robot;
+import java.util.List;
+import java.io.File;
+import java.nio.file.Files;
 import org.junit.Test;
 import static org.junit.Assert.*;
 import org.junit.Before;
@@ -813,6 +822,446 @@ public class SilkRoadTest {
         assertEquals(2, robotsWithProfit);
     }
     
+    /**
+     * Tests that moveRobots finds the optimal assignment with more than
+     * ten robots and stores, where a greedy choice loses profit.
+     */
+    @Test
+    public void AccordingPshouldAssignOptimallyWithManyRobotsAndStores() {
+        SilkRoad silkRoad = crearSilkRoadInvisible(200);
+        for (int i = 0; i < 6; i++) {
+            silkRoad.placeRobot(20 * i + 10);
+        }
+        for (int i = 0; i < 6; i++) {
+            silkRoad.placeRobot(20 * i);
+            silkRoad.placeStore(20 * i + 5, 20);
+            silkRoad.placeStore(20 * i + 14, 10);
+        }
+        delay(30);
+        silkRoad.moveRobots();
+        delay(30);
+        // Each group of four: 20 - 5 = 15 plus 10 - 4 = 6
+        assertEquals(126, silkRoad.getProfit());
+    }
+    
+    /**
+     * Tests that robots sharing a position after a move are still found
+     * in placement order, and that removing one leaves the other in place.
+     */
+    @Test
+    public void AccordingPshouldFindRobotsSharingAPosition() {
+        SilkRoad silkRoad = crearSilkRoadInvisible(50);
+        silkRoad.placeRobot(1);
+        silkRoad.placeRobot(3);
+        silkRoad.placeStore(5, 20);
+        silkRoad.moveRobot(1, 2);
+        assertTrue(silkRoad.ok());
+        // The first robot placed is the one moved from the shared position
+        silkRoad.moveRobot(3, 2);
+        assertEquals(16, silkRoad.getProfit());
+        silkRoad.removeRobot(3);
+        assertTrue(silkRoad.ok());
+        silkRoad.moveRobot(3, 1);
+        assertFalse(silkRoad.ok());
+        silkRoad.placeRobot(3);
+        assertTrue(silkRoad.ok());
+        silkRoad.placeRobot(5);
+        assertFalse(silkRoad.ok());
+    }
+    
+    /**
+     * Tests that the robot found at a shared position is always the first
+     * of the robots list, whatever order the robots arrived or left in.
+     */
+    @Test
+    public void AccordingPshouldFindTheFirstListedRobotOfAStack() {
+        SilkRoadModel model = new SilkRoadModel(50);
+        model.placeRobot(1);
+        model.placeRobot(3);
+        model.placeRobot(5);
+        Robot first = model.getRobots().get(0);
+        Robot second = model.getRobots().get(1);
+        Robot third = model.getRobots().get(2);
+        
+        model.moveRobot(5, -3);
+        model.moveRobot(1, 1);
+        model.moveRobot(3, -1);
+        assertSame(first, model.findRobotAt(2));
+        model.moveRobot(2, 10);
+        assertSame(second, model.findRobotAt(2));
+        model.moveRobot(12, -10);
+        assertSame(first, model.findRobotAt(2));
+        model.removeRobot(2);
+        assertSame(second, model.findRobotAt(2));
+        model.removeRobot(2);
+        assertSame(third, model.findRobotAt(2));
+        model.removeRobot(2);
+        assertNull(model.findRobotAt(2));
+    }
+    
+    /**
+     * Tests that the headless model applies the same rules as the simulator
+     * without drawing anything.
+     */
+    @Test
+    public void AccordingPshouldRunTheModelWithoutAView() {
+        SilkRoadModel model = new SilkRoadModel(50);
+        model.placeRobot(1);
+        model.placeStore(5, 20);
+        model.moveRobot(1, 4);
+        assertTrue(model.ok());
+        assertEquals(16, model.getProfit());
+        assertEquals(16, model.calculateMaximumPossibleProfit());
+        assertSame(model.findRobotAt(5), model.getHighestProfitRobot());
+        assertFalse(model.getRobots().get(0).isVisible());
+        model.undoLastMovement();
+        assertEquals(0, model.getProfit());
+        assertEquals(20, model.findStoreAt(5).getTenges());
+    }
+    
+    /**
+     * Tests that the maximum possible profit follows robots and stores
+     * being added and removed, across the end of the route.
+     */
+    @Test
+    public void AccordingPshouldUpdateMaximumPossibleProfitIncrementally() {
+        SilkRoadModel model = new SilkRoadModel(50);
+        model.placeStore(2, 20);
+        model.placeStore(30, 15);
+        assertEquals(0, model.calculateMaximumPossibleProfit());
+        model.placeRobot(45);
+        // 20 - 7 (wrapping past the end) + 15 - 15
+        assertEquals(13, model.calculateMaximumPossibleProfit());
+        model.placeRobot(25);
+        assertEquals(23, model.calculateMaximumPossibleProfit());
+        model.removeRobot(45);
+        assertEquals(10, model.calculateMaximumPossibleProfit());
+        model.removeStore(30);
+        assertEquals(0, model.calculateMaximumPossibleProfit());
+    }
+    
+    /**
+     * Tests that the leaderboard ranks robots by profit, keeping the robot
+     * placed first ahead on ties.
+     */
+    @Test
+    public void AccordingPshouldRankRobotsByProfit() {
+        SilkRoadModel model = new SilkRoadModel(50);
+        model.placeRobot(0);
+        model.placeRobot(10);
+        model.placeRobot(20);
+        model.placeStore(15, 30);
+        assertSame(model.findRobotAt(0), model.getHighestProfitRobot());
+        model.moveRobot(20, -5);
+        Robot leader = model.findRobotAt(15);
+        assertSame(leader, model.getHighestProfitRobot());
+        List<Robot> top = model.getTopRobots(2);
+        assertEquals(2, top.size());
+        assertSame(leader, top.get(0));
+        assertSame(model.findRobotAt(0), top.get(1));
+        assertEquals(3, model.getTopRobots(10).size());
+        model.removeRobot(15);
+        assertSame(model.findRobotAt(0), model.getHighestProfitRobot());
+    }
+    
+    /**
+     * Tests that several movements can be undone and redone, including the
+     * profit of each robot and the times a store was emptied.
+     */
+    @Test
+    public void AccordingPshouldUndoAndRedoSeveralMovements() {
+        SilkRoad silkRoad = crearSilkRoadInvisible(50);
+        silkRoad.placeRobot(0);
+        silkRoad.placeStore(5, 10);
+        silkRoad.placeStore(8, 20);
+        silkRoad.moveRobot(0, 5);
+        silkRoad.moveRobot(5, 3);
+        assertEquals(17, silkRoad.getProfit());
+        assertEquals(1, silkRoad.emptiedStores()[0][1]);
+        silkRoad.undoLastMovement();
+        silkRoad.undoLastMovement();
+        assertTrue(silkRoad.ok());
+        assertEquals(0, silkRoad.getProfit());
+        assertEquals(0, silkRoad.robots()[0][1]);
+        assertEquals(0, silkRoad.emptiedStores()[0][1]);
+        silkRoad.undoLastMovement();
+        assertFalse(silkRoad.ok());
+        silkRoad.redoLastMovement();
+        assertTrue(silkRoad.ok());
+        assertEquals(5, silkRoad.getProfit());
+        assertEquals(1, silkRoad.profitPerMove()[0].length - 1);
+        silkRoad.moveRobot(5, 1);
+        silkRoad.redoLastMovement();
+        assertFalse(silkRoad.ok());
+    }
+
+    /**
+     * Tests that placing robots and stores keeps the movements that can be
+     * undone, and that removing one only forgets its own movements.
+     */
+    @Test
+    public void AccordingPshouldUndoMovementsMadeBeforePlacing() {
+        SilkRoadModel model = new SilkRoadModel(50);
+        model.placeRobot(0);
+        model.placeStore(5, 10);
+        model.moveRobot(0, 5);
+        model.placeStore(20, 7);
+        model.placeRobot(30);
+        model.undoLastMovement();
+        assertTrue(model.ok());
+        assertEquals(0, model.getProfit());
+        assertNotNull(model.findRobotAt(0));
+        assertEquals(10, model.findStoreAt(5).getTenges());
+
+        model.redoLastMovement();
+        model.moveRobot(30, 2);
+        model.removeStore(5);
+        model.undoLastMovement();
+        assertTrue(model.ok());
+        assertNotNull(model.findRobotAt(30));
+        model.undoLastMovement();
+        assertFalse(model.ok());
+        assertNotNull(model.findRobotAt(5));
+
+        model.moveRobot(5, 15);
+        model.removeRobot(20);
+        model.undoLastMovement();
+        assertFalse(model.ok());
+    }
+
+    /**
+     * Tests that a recorded run is rebuilt from the command log, both at
+     * the end and at an earlier command.
+     */
+    @Test
+    public void AccordingPshouldReplayRecordedCommands() throws Exception {
+        File directory = Files.createTempDirectory("silkroad-log").toFile();
+        SilkRoadModel model = new SilkRoadModel(50);
+        model.startRecording(directory, 2);
+        model.placeRobot(0);
+        model.placeStore(5, 10);
+        model.placeStore(10, 30, "autonomous");
+        model.moveRobot(0, 5);
+        model.moveRobots();
+        model.undoLastMovement();
+        assertEquals(6, model.getRecordedCommands());
+        model.stopRecording();
+        
+        SilkRoadModel replayed = SilkRoadReplayer.replay(directory);
+        assertEquals(model.getProfit(), replayed.getProfit());
+        assertArrayEquals(model.stores(), replayed.stores());
+        assertArrayEquals(model.robots(), replayed.robots());
+        replayed.redoLastMovement();
+        model.redoLastMovement();
+        assertArrayEquals(model.robots(), replayed.robots());
+        
+        SilkRoadModel earlier = SilkRoadReplayer.replay(directory, 4);
+        assertEquals(5, earlier.getProfit());
+        assertEquals(5, earlier.robots()[0][0]);
+        
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+    
+    /**
+     * Tests that a batch is applied at once and rolled back on error.
+     */
+    @Test
+    public void AccordingPshouldApplyBatchesAtomically() {
+        SilkRoadModel model = new SilkRoadModel(50);
+        model.placeRobot(0);
+        model.placeStore(5, 10);
+        int[] profitEvents = {0};
+        model.addListener(new SilkRoadListener() {
+            public void robotPlaced(Robot robot) { }
+            public void robotMoved(Robot robot) { }
+            public void robotRemoved(Robot robot) { }
+            public void storePlaced(Store store) { }
+            public void storeRemoved(Store store) { }
+            public void leaderChanged(Robot previous, Robot leader) { }
+            public void profitChanged() { profitEvents[0]++; }
+        });
+        
+        model.apply(SilkRoadCommand.moveRobot(0, 5),
+                    SilkRoadCommand.removeStore(5),
+                    SilkRoadCommand.moveRobot(7, 1));
+        assertFalse(model.ok());
+        assertEquals(0, profitEvents[0]);
+        assertEquals(0, model.getProfit());
+        assertArrayEquals(new int[][] {{5, 10, 0}}, model.stores());
+        assertArrayEquals(new int[][] {{0, 0, 0}}, model.robots());
+        
+        model.apply(SilkRoadCommand.placeRobot(20),
+                    SilkRoadCommand.placeStore(30, 40),
+                    SilkRoadCommand.moveRobot(0, 5),
+                    SilkRoadCommand.moveRobot(20, 10));
+        assertTrue(model.ok());
+        assertEquals(1, profitEvents[0]);
+        assertEquals(35, model.getProfit());
+        assertEquals(2, model.getRobots().size());
+    }
+    
+    /**
+     * Tests that rolling back a batch brings back the undo history and the
+     * settings the batch changed, not only the robots and stores.
+     */
+    @Test
+    public void AccordingPshouldRollBackTheUndoHistoryAndSettings() {
+        SilkRoadModel model = new SilkRoadModel(50);
+        model.placeRobot(0);
+        model.placeStore(5, 10);
+        model.placeStore(10, 20);
+        model.moveRobot(0, 5);
+        assertEquals(5, model.getProfit());
+        
+        model.beginBatch();
+        model.setSweepCollection(true);
+        model.undoLastMovement();
+        model.moveRobot(0, 10);
+        model.setUndoLimit(1);
+        model.removeStore(10);
+        model.rollbackBatch();
+        
+        assertFalse(model.isSweepCollection());
+        assertEquals(5, model.getProfit());
+        assertArrayEquals(new int[][] {{5, 5, 0}}, model.robots());
+        assertArrayEquals(new int[][] {{5, 0, 0}, {10, 20, 0}}, model.stores());
+        model.undoLastMovement();
+        assertTrue(model.ok());
+        assertEquals(0, model.getProfit());
+        assertArrayEquals(new int[][] {{5, 10, 0}, {10, 20, 0}}, model.stores());
+        model.redoLastMovement();
+        assertEquals(5, model.getProfit());
+    }
+    
+    /**
+     * Tests that loading days skips the placements placeRobot and
+     * placeStore would reject.
+     */
+    @Test
+    public void AccordingPshouldBulkLoadDaysWithTheSameChecks() {
+        int[][] days = {{7}, {1, 10}, {1, 10}, {2, 15, 20}, {2, 15, 40},
+                        {2, 30, -5}, {1, 150}, {2, 20, 30}};
+        SilkRoadModel model = new SilkRoadModel(days);
+        assertTrue(model.ok());
+        assertArrayEquals(new int[][] {{10, 0, 0}}, model.robots());
+        assertArrayEquals(new int[][] {{15, 20, 0}, {20, 30, 0}}, model.stores());
+        assertEquals(35, model.calculateMaximumPossibleProfit());
+        assertNotNull(model.getHighestProfitRobot());
+    }
+    
+    /**
+     * Tests that in sweep mode a robot collects from every store it
+     * crosses, and that the whole sweep is undone at once.
+     */
+    @Test
+    public void AccordingPshouldCollectFromEveryStoreCrossedWhenSweeping() {
+        SilkRoadModel model = new SilkRoadModel(20);
+        model.placeRobot(0);
+        model.placeStore(3, 10);
+        model.placeStore(8, 20);
+        model.placeStore(15, 30);
+        model.setSweepCollection(true);
+        
+        model.moveRobot(0, 10);
+        assertTrue(model.ok());
+        assertEquals(7 + 12, model.getProfit());
+        assertArrayEquals(new int[][] {{3, 0, 0}, {8, 0, 0}, {15, 30, 0}}, model.stores());
+        assertArrayEquals(new int[][] {{10, 19, 0}}, model.robots());
+        
+        model.moveRobot(10, 25);
+        assertEquals(19 + 25, model.getProfit());
+        assertArrayEquals(new int[][] {{15, 19 + 25, 0}}, model.robots());
+        
+        model.undoLastMovement();
+        assertEquals(19, model.getProfit());
+        assertArrayEquals(new int[][] {{10, 19, 0}}, model.robots());
+        model.undoLastMovement();
+        assertEquals(0, model.getProfit());
+        assertArrayEquals(new int[][] {{3, 10, 0}, {8, 20, 0}, {15, 30, 0}}, model.stores());
+    }
+
+    /**
+     * Tests that the undo limit counts movements, so a sweep of several
+     * steps is kept and dropped as a whole.
+     */
+    @Test
+    public void AccordingPshouldKeepAndDropWholeSweepsAtTheUndoLimit() {
+        SilkRoadModel model = new SilkRoadModel(20);
+        model.placeRobot(0);
+        model.placeStore(3, 10);
+        model.placeStore(8, 20);
+        model.placeStore(15, 30);
+        model.setSweepCollection(true);
+        model.setUndoLimit(1);
+        model.moveRobot(0, 10);
+        model.undoLastMovement();
+        assertTrue(model.ok());
+        assertEquals(0, model.getProfit());
+        assertArrayEquals(new int[][] {{0, 0, 0}}, model.robots());
+        assertArrayEquals(new int[][] {{3, 10, 0}, {8, 20, 0}, {15, 30, 0}}, model.stores());
+
+        model.setUndoLimit(2);
+        model.moveRobot(0, 10);
+        model.setSweepCollection(false);
+        model.moveRobot(10, 1);
+        model.moveRobot(11, 1);
+        model.undoLastMovement();
+        model.undoLastMovement();
+        assertTrue(model.ok());
+        model.undoLastMovement();
+        assertFalse(model.ok());
+        assertEquals(19, model.getProfit());
+        assertArrayEquals(new int[][] {{10, 19, 0}}, model.robots());
+        assertArrayEquals(new int[][] {{3, 0, 0}, {8, 0, 0}, {15, 30, 0}}, model.stores());
+    }
+
+    /**
+     * Tests that a robot keeps the profit of more than 100 movements and
+     * that a limited history keeps only the newest ones.
+     */
+    @Test
+    public void AccordingPshouldKeepLongProfitHistories() {
+        SilkRoadModel model = new SilkRoadModel(10);
+        model.placeRobot(0);
+        model.placeStore(1, 5);
+        for (int i = 0; i < 150; i++) {
+            model.moveRobot(i % 2 == 0 ? 0 : 1, i % 2 == 0 ? 1 : -1);
+            model.resupplyStores();
+        }
+        Robot robot = model.getRobots().get(0);
+        assertEquals(75, robot.profitHistory().remaining());
+        assertEquals(75 * 4, robot.getTotalProfit());
+        assertEquals(76, model.profitPerMove()[0].length);
+        
+        model.setProfitHistoryLimit(10);
+        model.moveRobot(0, 1);
+        assertEquals(10, robot.profitHistory().remaining());
+        assertEquals(76 * 4, robot.getTotalProfit());
+        model.undoLastMovement();
+        assertEquals(75 * 4, robot.getTotalProfit());
+    }
+    
+    /**
+     * Tests that the robots and stores are reported sorted by position with
+     * their type codes.
+     */
+    @Test
+    public void AccordingPshouldReportTheTypeCodes() {
+        SilkRoadModel model = new SilkRoadModel(40);
+        model.placeRobot(0, "normal");
+        model.placeRobot(5, "neverback");
+        model.placeRobot(10, "tender");
+        model.placeRobot(15, "lazy");
+        model.placeStore(20, 30, "fighter");
+        model.placeStore(25, 12, "normal");
+        
+        assertArrayEquals(new int[][] {{0, 0, 0}, {5, 0, 1}, {10, 0, 2}, {15, 0, 3}}, model.robots());
+        assertArrayEquals(new int[][] {{20, 30, 2}, {25, 12, 0}}, model.stores());
+    }
+    
     /**
      * Tests handling of moveRobots with more stores than robots.
      */